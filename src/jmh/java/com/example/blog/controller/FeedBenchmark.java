@@ -0,0 +1,84 @@
+package com.example.blog.controller;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+
+import com.example.blog.jmh.BlogState;
+
+/**
+ * Лента /posts по частям: сборка модели в {@link PostController#listPosts}
+ * (запросы к базе, теги и счётчики страницы) и отрисовка posts.html
+ * шаблонизатором Thymeleaf с той же моделью.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FeedBenchmark {
+
+    /**
+     * Фильтр по тегам: без фильтра, один тег, пересечение двух тегов.
+     */
+    @Param({ "", "tag-1", "tag-1,tag-11" })
+    public String tags;
+
+    @Param({ "10", "50" })
+    public int size;
+
+    private PostController controller;
+    private WebApplicationContext context;
+    private View postsView;
+    private ExtendedModelMap renderedModel;
+    private int page;
+
+    @Setup(Level.Trial)
+    public void setUp(BlogState blog) throws Exception {
+        controller = blog.getBean(PostController.class);
+        context = (WebApplicationContext) blog.getContext();
+        postsView = blog.getBean(ViewResolver.class).resolveViewName("posts", Locale.forLanguageTag("ru"));
+        renderedModel = new ExtendedModelMap();
+        controller.listPosts(tagParam(), "all", 0, size, null, null, renderedModel,
+                new ServletWebRequest(new MockHttpServletRequest()));
+    }
+
+    @Benchmark
+    public ExtendedModelMap listPosts() {
+        // первые 20 страниц по кругу: OFFSET остаётся в пределах типичной навигации
+        page = (page + 1) % 20;
+        ExtendedModelMap model = new ExtendedModelMap();
+        controller.listPosts(tagParam(), "all", page, size, null, null, model,
+                new ServletWebRequest(new MockHttpServletRequest()));
+        return model;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse renderPosts() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(context.getServletContext(), "GET", "/posts");
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, context);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        postsView.render(renderedModel, request, response);
+        return response;
+    }
+
+    private List<String> tagParam() {
+        return tags.isEmpty() ? null : List.of(tags);
+    }
+}
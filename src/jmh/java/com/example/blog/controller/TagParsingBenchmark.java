@@ -0,0 +1,30 @@
+package com.example.blog.controller;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link PostController#parseTags}: разбор строки тегов из формы поста и параметра ленты.
+ * Базы и контекста приложения не требует.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagParsingBenchmark {
+
+    @Param({ "java", " java, spring ,,jdbc , thymeleaf,java ,postgresql, spring-boot, jmh" })
+    public String tags;
+
+    @Benchmark
+    public List<String> parseTags() {
+        return PostController.parseTags(tags);
+    }
+}
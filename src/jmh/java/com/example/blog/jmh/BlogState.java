@@ -0,0 +1,102 @@
+package com.example.blog.jmh;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.blog.BlogApplication;
+import com.example.blog.service.PostCounterService;
+import com.example.blog.service.TagPostingIndex;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Приложение на встроенном PostgreSQL с тестовыми данными — общее состояние
+ * JMH-бенчмарков (одно на форк).
+ *
+ * Данные: blog.jmh.posts постов (по умолчанию 10 000) с текстом около 2 КБ,
+ * 200 тегов по 3 на пост с неравномерной популярностью и по 10 комментариев на пост.
+ * Кеш отрисованных страниц отключён, параллельные запросы — как в приложении.
+ */
+@State(Scope.Benchmark)
+public class BlogState {
+
+    public static final int POSTS = Integer.getInteger("blog.jmh.posts", 10_000);
+    public static final int TAGS = 200;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(BlogApplication.class)
+                .properties(Map.of(
+                        "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username", "postgres",
+                        "spring.datasource.password", "postgres",
+                        "spring.sql.init.mode", "always",
+                        "server.port", "0",
+                        "blog.page-cache.enabled", "false",
+                        "blog.uploads.dir", "build/jmh-uploads",
+                        "logging.level.root", "WARN"))
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(PostCounterService.class).reconcile();
+        context.getBean(TagPostingIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO posts (title, preview, image_url, text, likes)
+                SELECT 'Пост номер ' || i || ' о Spring и PostgreSQL',
+                       'Короткое превью поста ' || i || ', которое показывается в ленте',
+                       CASE WHEN i % 3 = 0 THEN '/uploads/ab/cd/' || md5(i::text) || md5(i::text) || '.jpg' END,
+                       repeat('Текст поста ' || i || ' с несколькими предложениями. ', 50),
+                       i % 97
+                FROM generate_series(1, ?) AS i
+                """, POSTS);
+        jdbcTemplate.update("INSERT INTO tags (name) SELECT 'tag-' || i FROM generate_series(1, ?) AS i", TAGS);
+        // популярность тегов неравномерна: tag-1..tag-10 встречаются чаще остальных
+        jdbcTemplate.update("""
+                INSERT INTO post_tags (post_id, tag_id)
+                SELECT DISTINCT p.id, t.tag_id
+                FROM posts p
+                CROSS JOIN LATERAL (VALUES (1 + p.id % 10), (11 + p.id % 40), (51 + (p.id * 7) % 150)) AS t(tag_id)
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO comments (post_id, author, content, created_at)
+                SELECT p.id, 'Автор ' || c, 'Комментарий ' || c || ' к посту ' || p.id,
+                       now() - make_interval(mins => c)
+                FROM posts p CROSS JOIN generate_series(1, 10) AS c
+                """);
+        jdbcTemplate.update("UPDATE posts SET comment_count = 10");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
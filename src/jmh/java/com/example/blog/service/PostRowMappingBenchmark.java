@@ -0,0 +1,65 @@
+package com.example.blog.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.blog.jmh.BlogState;
+
+/**
+ * {@link PostService#mapRowToPost}: разбор строки результата в Post.
+ * Строки читаются из базы один раз (PostgreSQL JDBC держит их в памяти),
+ * каждая операция — отображение одной строки без сетевого обмена.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PostRowMappingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private PostService postService;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet rows;
+
+    @Setup(Level.Trial)
+    public void setUp(BlogState blog) throws SQLException {
+        postService = blog.getBean(PostService.class);
+        connection = blog.getBean(DataSource.class).getConnection();
+        statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        rows = statement.executeQuery("SELECT id, title, preview, image_url, text, likes, comment_count "
+                + "FROM posts ORDER BY id LIMIT " + ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        rows.close();
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowToPost(Blackhole blackhole) throws SQLException {
+        rows.beforeFirst();
+        while (rows.next()) {
+            blackhole.consume(postService.mapRowToPost(rows));
+        }
+    }
+}
@@ -2,13 +2,17 @@ package com.example.blog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс запуска Spring Boot приложения для блога.
  * 
  * При запуске инициализирует Spring-контекст и поднимает встроенный сервер.
+ * Включает планировщик для фоновых задач (например, сверки счётчиков;
+ * в профиле virtual — на виртуальных потоках).
  */
 @SpringBootApplication
+@EnableScheduling
 public class BlogApplication {
 
     /**
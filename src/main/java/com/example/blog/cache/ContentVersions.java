@@ -0,0 +1,92 @@
+package com.example.blog.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import com.example.blog.event.PostChangedEvent;
+
+/**
+ * Версии содержимого для условных GET-запросов (ETag / If-None-Match).
+ *
+ * Версия ленты увеличивается при изменении постов или комментариев (но не лайков:
+ * иначе любой лайк сбрасывал бы ETag всех страниц ленты), версия поста — при
+ * любом изменении этого поста. Версии хранятся в памяти и увеличиваются после
+ * фиксации транзакции, поэтому ETag, вычисленный до чтения данных, никогда
+ * не описывает более новое содержимое, чем отдано клиенту.
+ *
+ * Версии берутся из одного счётчика. Запись о версии поста появляется при первом
+ * его изменении и удаляется вместе с постом, так что их не больше, чем постов;
+ * у постов без записи версия общая — она растёт при удалении любого поста,
+ * чтобы ETag удалённого поста не совпал с ETag, выданным до его изменений.
+ *
+ * Обработчик события выполняется раньше инвалидации {@link RenderedPageCache}:
+ * страница, отрисованная после инвалидации, уже получит новый ETag.
+ *
+ * В ETag входит момент старта приложения: после перезапуска счётчики начинаются
+ * заново, и старые ETag клиентов не должны совпасть с новыми.
+ */
+@Component
+public class ContentVersions {
+
+    /**
+     * Порядок обработчика событий: до инвалидации кеша страниц.
+     */
+    public static final int LISTENER_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong feedVersion = new AtomicLong();
+    private final AtomicLong unchangedPostVersion = new AtomicLong();
+    private final Map<Integer, Long> postVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Увеличивает версию изменённого поста и, если изменились не только лайки, версию ленты.
+     *
+     * @param event событие об изменении поста
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(LISTENER_ORDER)
+    public void onPostChanged(PostChangedEvent event) {
+        long version = sequence.incrementAndGet();
+        if (!event.isLikesOnly()) {
+            feedVersion.accumulateAndGet(version, Math::max);
+        }
+        Integer postId = event.getPostId();
+        if (postId == null) {
+            return;
+        }
+        if (event.isDeleted()) {
+            postVersions.remove(postId);
+            unchangedPostVersion.accumulateAndGet(version, Math::max);
+        } else {
+            postVersions.merge(postId, version, Math::max);
+        }
+    }
+
+    /**
+     * @return сильный ETag текущей версии ленты (общий для всех страниц и тегов)
+     */
+    public String feedEtag() {
+        return "\"feed-" + epoch + "-" + feedVersion.get() + "\"";
+    }
+
+    /**
+     * @param postId идентификатор поста
+     * @return сильный ETag текущей версии страницы поста
+     */
+    public String postEtag(int postId) {
+        Long version = postVersions.get(postId);
+        return "\"post-" + postId + "-" + epoch + "-" + (version != null ? version : unchangedPostVersion.get()) + "\"";
+    }
+
+    /**
+     * @return количество постов, для которых хранится собственная версия
+     */
+    public int trackedPosts() {
+        return postVersions.size();
+    }
+}
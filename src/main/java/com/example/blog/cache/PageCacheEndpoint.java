@@ -0,0 +1,41 @@
+package com.example.blog.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Endpoint Actuator кеша отрисованных страниц: GET /actuator/pagecache —
+ * статистика, POST /actuator/pagecache — полная очистка.
+ *
+ * Очистка возвращает всю нагрузку на базу, поэтому по HTTP endpoint не открыт;
+ * попадания, промахи и размер кеша и так экспортируются метриками blog.cache.*.
+ */
+@Endpoint(id = "pagecache")
+public class PageCacheEndpoint {
+
+    private final RenderedPageCache pageCache;
+
+    public PageCacheEndpoint(RenderedPageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * @return статистика кеша страниц
+     */
+    @ReadOperation
+    public RenderedPageCache.Stats stats() {
+        return pageCache.getStats();
+    }
+
+    /**
+     * Полностью очищает кеш страниц.
+     *
+     * @return статистика кеша после очистки
+     */
+    @WriteOperation
+    public RenderedPageCache.Stats clear() {
+        pageCache.clear();
+        return pageCache.getStats();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.blog.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import com.example.blog.event.PostChangedEvent;
+
+/**
+ * Кеш отрисованного HTML страниц ленты (/posts) и страниц постов (/posts/{id}).
+ *
+ * Ограничен по количеству записей (Caffeine, вытеснение — W-TinyLFU); чтение
+ * не берёт общей блокировки. Каждая запись помнит идентификаторы постов,
+ * показанных на странице, а обратный индекс «пост → ключи страниц» позволяет
+ * при изменении поста удалять только затронутые страницы, не просматривая весь
+ * кеш. Инвалидация выполняется по событию {@link PostChangedEvent} после
+ * фиксации транзакции.
+ *
+ * Страница, начавшая отрисовку до изменения одного из своих постов, в кеш не
+ * попадёт: у каждого поста есть версия — значение общего счётчика на момент
+ * последнего изменения, и {@link #put} сравнивает версии постов страницы
+ * с версией, полученной до отрисовки. Изменение состава ленты (создание,
+ * удаление, смена тегов) отбрасывает все незавершённые отрисовки.
+ */
+@Component
+public class RenderedPageCache {
+
+    /**
+     * Атрибут запроса, в который контроллер кладёт идентификаторы постов страницы.
+     */
+    public static final String POST_IDS_ATTRIBUTE = RenderedPageCache.class.getName() + ".postIds";
+
+    private static final String FEED_PREFIX = "feed|";
+    private static final String POST_PREFIX = "post|";
+
+    /**
+     * Отрисованная страница.
+     *
+     * @param body        тело ответа
+     * @param contentType заголовок Content-Type
+     * @param etag        заголовок ETag, выданный при отрисовке (может быть null)
+     * @param postIds     посты, показанные на странице
+     */
+    public record CachedPage(byte[] body, String contentType, String etag, Set<Integer> postIds) {
+    }
+
+    /**
+     * Снимок статистики кеша.
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size, int maxEntries) {
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private final int maxEntries;
+    private final Cache<String, CachedPage> entries;
+    private final Map<Integer, Set<String>> keysByPost = new ConcurrentHashMap<>();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong structureVersion = new AtomicLong();
+    private final Map<Integer, Long> postVersions = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param maxEntries максимальное количество страниц в кеше
+     */
+    public RenderedPageCache(@Value("${blog.page-cache.max-entries:500}") int maxEntries) {
+        this(maxEntries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor пул для вытеснения и прочего обслуживания кеша
+     */
+    RenderedPageCache(int maxEntries, Executor executor) {
+        this.maxEntries = maxEntries;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .executor(executor)
+                // вызывается атомарно с удалением записи: индекс не разойдётся с параллельным put
+                .evictionListener((String key, CachedPage page, RemovalCause cause) -> unindex(key, page))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Формирует ключ страницы ленты.
+     */
+    public static String feedKey(String tag, int page, Integer before, Integer after, int size) {
+        return FEED_PREFIX + (tag == null ? "" : tag) + "|" + page + "|" + before + "|" + after + "|" + size;
+    }
+
+    /**
+     * Формирует ключ страницы поста.
+     */
+    public static String postKey(int postId) {
+        return POST_PREFIX + postId;
+    }
+
+    /**
+     * Возвращает страницу из кеша.
+     *
+     * @param key ключ страницы
+     * @return страница или null, если её нет в кеше
+     */
+    public CachedPage get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * @return текущая версия кеша; передаётся в {@link #put} после отрисовки
+     */
+    public long currentVersion() {
+        return clock.get();
+    }
+
+    /**
+     * Сохраняет страницу, если с начала её отрисовки не менялись показанные на ней посты.
+     *
+     * @param key     ключ страницы
+     * @param page    отрисованная страница
+     * @param version версия, полученная до отрисовки
+     */
+    public void put(String key, CachedPage page, long version) {
+        if (isStale(page, version)) {
+            return;
+        }
+        entries.asMap().compute(key, (k, previous) -> {
+            if (previous != null) {
+                unindex(k, previous);
+            }
+            index(k, page);
+            return page;
+        });
+        // инвалидация могла пройти между проверкой и индексацией — тогда она не нашла страницу в индексе
+        if (isStale(page, version)) {
+            remove(key, page);
+        }
+    }
+
+    /**
+     * Удаляет из кеша страницы, затронутые изменением поста. Выполняется после
+     * {@link ContentVersions}: иначе страница, отрисованная между инвалидацией
+     * и сменой версии, попала бы в кеш с новым телом и старым ETag.
+     *
+     * @param event событие об изменении поста
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ContentVersions.LISTENER_ORDER + 1)
+    public void onPostChanged(PostChangedEvent event) {
+        invalidate(event.getPostId(), event.isFeedStructureChanged());
+        if (event.isDeleted()) {
+            // незавершённые отрисовки отброшены изменением состава ленты, версия поста больше не нужна
+            postVersions.remove(event.getPostId());
+        }
+    }
+
+    /**
+     * Удаляет из кеша страницу поста и страницы ленты, на которых он показан.
+     * Если изменился состав ленты — удаляются все страницы ленты.
+     *
+     * @param postId       идентификатор поста
+     * @param allFeedPages удалить все страницы ленты
+     */
+    public void invalidate(Integer postId, boolean allFeedPages) {
+        // сначала версия, затем удаление: put, не увидевший версию, уже виден в индексе
+        long version = clock.incrementAndGet();
+        invalidations.incrementAndGet();
+        if (allFeedPages) {
+            structureVersion.accumulateAndGet(version, Math::max);
+        }
+        if (postId != null) {
+            postVersions.merge(postId, version, Math::max);
+            Set<String> keys = keysByPost.get(postId);
+            if (keys != null) {
+                for (String key : List.copyOf(keys)) {
+                    entries.asMap().computeIfPresent(key, (k, page) -> {
+                        if (!page.postIds().contains(postId)) {
+                            return page;
+                        }
+                        unindex(k, page);
+                        return null;
+                    });
+                }
+            }
+        }
+        if (allFeedPages) {
+            for (String key : entries.asMap().keySet()) {
+                if (key.startsWith(FEED_PREFIX)) {
+                    entries.asMap().computeIfPresent(key, (k, page) -> {
+                        unindex(k, page);
+                        return null;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Полностью очищает кеш.
+     */
+    public void clear() {
+        structureVersion.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        for (String key : entries.asMap().keySet()) {
+            entries.asMap().computeIfPresent(key, (k, page) -> {
+                unindex(k, page);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return снимок статистики попаданий/промахов
+     */
+    public Stats getStats() {
+        entries.cleanUp();
+        CacheStats stats = entries.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), invalidations.get(),
+                (int) entries.estimatedSize(), maxEntries);
+    }
+
+    private boolean isStale(CachedPage page, long version) {
+        if (structureVersion.get() > version) {
+            return true;
+        }
+        for (Integer postId : page.postIds()) {
+            Long changed = postVersions.get(postId);
+            if (changed != null && changed > version) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remove(String key, CachedPage page) {
+        entries.asMap().computeIfPresent(key, (k, current) -> {
+            if (current != page) {
+                return current;
+            }
+            unindex(k, current);
+            return null;
+        });
+    }
+
+    private void index(String key, CachedPage page) {
+        for (Integer postId : page.postIds()) {
+            keysByPost.compute(postId, (id, keys) -> {
+                Set<String> result = (keys != null) ? keys : ConcurrentHashMap.newKeySet();
+                result.add(key);
+                return result;
+            });
+        }
+    }
+
+    private void unindex(String key, CachedPage page) {
+        for (Integer postId : page.postIds()) {
+            keysByPost.computeIfPresent(postId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.blog.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Фильтр, отдающий страницы ленты и постов из {@link RenderedPageCache}.
+ *
+ * При попадании ответ пишется из кеша без обращения к контроллеру, базе и Thymeleaf;
+ * если ETag клиента совпадает с ETag сохранённой страницы — отдаётся 304 без тела.
+ * При промахе запрос обрабатывается как обычно, а успешный ответ сохраняется в кеш.
+ * Запросы с неизвестными параметрами не кешируются.
+ */
+public class RenderedPageCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Page-Cache";
+
+    private static final Pattern POST_PATH = Pattern.compile("^/posts/(\\d+)$");
+    private static final Set<String> FEED_PARAMS = Set.of("tag", "mode", "page", "size", "before", "after");
+
+    private final RenderedPageCache cache;
+
+    public RenderedPageCacheFilter(RenderedPageCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || cacheKey(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+
+        RenderedPageCache.CachedPage cached = cache.get(key);
+        if (cached != null) {
+            response.setHeader(CACHE_HEADER, "HIT");
+            if (cached.etag() != null) {
+                response.setHeader(HttpHeaders.ETAG, cached.etag());
+                if (cached.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        long version = cache.currentVersion();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null) {
+                cache.put(key, new RenderedPageCache.CachedPage(
+                        wrapper.getContentAsByteArray(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.ETAG), dependencies(request)),
+                        version);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Строит ключ кеша по пути и параметрам запроса.
+     *
+     * @return ключ или null, если запрос не кешируется
+     */
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("/posts".equals(path)) {
+            if (!FEED_PARAMS.containsAll(request.getParameterMap().keySet())) {
+                return null;
+            }
+            try {
+                String[] tags = request.getParameterValues("tag");
+                String tag = (tags == null) ? "" : String.join(",", tags);
+                String mode = request.getParameter("mode");
+                return RenderedPageCache.feedKey(
+                        tag.isBlank() ? null : (mode == null ? tag : tag + "|" + mode),
+                        intParam(request, "page", 0),
+                        integerParam(request, "before"),
+                        integerParam(request, "after"),
+                        intParam(request, "size", 10));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        Matcher matcher = POST_PATH.matcher(path);
+        if (matcher.matches() && request.getParameterMap().isEmpty()) {
+            try {
+                return RenderedPageCache.postKey(Integer.parseInt(matcher.group(1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Integer> dependencies(HttpServletRequest request) {
+        Object ids = request.getAttribute(RenderedPageCache.POST_IDS_ATTRIBUTE);
+        return (ids instanceof Collection<?>) ? Set.copyOf((Collection<Integer>) ids) : Set.of();
+    }
+
+    private static int intParam(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        return (value == null || value.isBlank()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static Integer integerParam(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        return (value == null || value.isBlank()) ? null : Integer.valueOf(value.trim());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.blog.concurrent;
+
+import java.io.IOException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов.
+ *
+ * На пуле платформенных потоков Tomcat число одновременных запросов неявно
+ * ограничено размером пула. С виртуальными потоками этого ограничения нет,
+ * и тысячи запросов одновременно встают в очередь за соединением к базе.
+ * Фильтр возвращает явный предел: запрос ждёт свободного места не дольше
+ * заданного времени, иначе получает 503 с Retry-After.
+ *
+ * Тот же ответ получает запрос, которому не хватило соединения к базе
+ * ({@link ConnectionBulkhead} или таймаут пула), если ответ ещё не начал отправляться.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+
+    /**
+     * @param maxConcurrentRequests максимальное число одновременно обрабатываемых запросов
+     * @param queueTimeoutMillis    сколько запрос может ждать свободного места
+     */
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, long queueTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (response.isCommitted() || !isDatabaseBusy(e)) {
+                throw e;
+            }
+            reject(response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * @return true, если причина ошибки — не полученное вовремя соединение к базе
+     */
+    static boolean isDatabaseBusy(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return число запросов, которые можно начать обрабатывать прямо сейчас
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.blog.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Ограничение числа одновременно выданных соединений к базе размером пула.
+ *
+ * С виртуальными потоками число потоков, одновременно запрашивающих соединение,
+ * ничем не ограничено (запрос может ещё и разветвиться на подзадачи ParallelQueries).
+ * Поток, не получивший разрешение за заданное время, получает
+ * {@link DatabaseBusyException}, а {@link ConcurrencyLimitFilter} превращает её
+ * в ответ 503 — перегрузка базы видна клиенту как "повторите позже", а не как ошибка 500.
+ * Разрешение возвращается при закрытии соединения.
+ */
+public class ConnectionBulkhead extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final long waitMillis;
+
+    /**
+     * @param targetDataSource исходный DataSource (пул соединений)
+     * @param maxConnections   максимальное число одновременно выданных соединений
+     * @param waitMillis       сколько поток может ждать свободного соединения
+     */
+    public ConnectionBulkhead(DataSource targetDataSource, int maxConnections, long waitMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return число соединений, которые можно выдать прямо сейчас
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new DatabaseBusyException("Все " + maxConnections + " соединений заняты дольше " + waitMillis + " мс");
+        }
+    }
+
+    /**
+     * Оборачивает соединение так, чтобы первое закрытие вернуло разрешение.
+     */
+    private Connection releasing(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionBulkhead.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Соединение не получено: база занята запросами других потоков.
+     */
+    public static class DatabaseBusyException extends SQLTransientConnectionException {
+
+        public DatabaseBusyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.blog.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.blog.jdbc.SqlStatistics;
+import com.example.blog.jfr.RequestIds;
+
+/**
+ * Параллельное выполнение независимых запросов страницы на виртуальных потоках.
+ *
+ * Используется как область видимости в духе структурной конкурентности
+ * (StructuredTaskScope в Java 21 пока preview-API):
+ * <pre>
+ * try (ParallelQueries.Scope scope = parallelQueries.open()) {
+ *     Subtask&lt;Post&gt; post = scope.fork(() -&gt; postService.findById(id));
+ *     Subtask&lt;List&lt;Tag&gt;&gt; tags = scope.fork(() -&gt; postService.findTagsByPostId(id));
+ *     scope.join();
+ *     ... post.get(), tags.get()
+ * }
+ * </pre>
+ * Подзадачи не переживают область: при первой ошибке остальные отменяются
+ * (прерываются), а ошибка пробрасывается из {@link Scope#join()}; при выходе
+ * из блока незавершённые подзадачи отменяются.
+ *
+ * Каждая подзадача берёт своё соединение из пула и не видит транзакцию
+ * вызывающего потока, поэтому область предназначена для независимых чтений
+ * вне транзакции (как в контроллерах).
+ *
+ * Свойство blog.parallel-queries.enabled=false выполняет подзадачи сразу
+ * в вызывающем потоке — последовательный режим для сравнения задержек.
+ */
+@Component
+public class ParallelQueries {
+
+    private final boolean enabled;
+
+    /**
+     * @param enabled выполнять подзадачи параллельно (false — последовательно в текущем потоке)
+     */
+    public ParallelQueries(@Value("${blog.parallel-queries.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Открывает новую область для параллельных подзадач.
+     *
+     * @return область; должна закрываться (try-with-resources)
+     */
+    public Scope open() {
+        return enabled ? new Scope(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("parallel-query-", 0).factory())) : new Scope(null);
+    }
+
+    /**
+     * Результат подзадачи; доступен после {@link Scope#join()}.
+     *
+     * @param <T> тип результата
+     */
+    public interface Subtask<T> {
+
+        /**
+         * @return результат подзадачи
+         * @throws IllegalStateException если область ещё не дождалась подзадач
+         */
+        T get();
+    }
+
+    /**
+     * Область параллельных подзадач.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final ExecutorService executor;
+        private final ExecutorCompletionService<Object> completion;
+        private final List<Future<Object>> futures = new ArrayList<>();
+        private boolean joined;
+
+        private Scope(ExecutorService executor) {
+            this.executor = executor;
+            this.completion = (executor != null) ? new ExecutorCompletionService<>(executor) : null;
+        }
+
+        /**
+         * Запускает подзадачу.
+         *
+         * @param task запрос
+         * @param <T>  тип результата
+         * @return ссылка на результат, доступный после {@link #join()}
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Subtask<T> fork(Callable<? extends T> task) {
+            if (joined) {
+                throw new IllegalStateException("Область уже завершена");
+            }
+            if (executor == null) {
+                // последовательный режим: выполняем сразу, ошибка пробрасывается тут же
+                T result = call(task);
+                return () -> result;
+            }
+            // запросы подзадачи учитываются в статистике SQL и событиях JFR вызывающего HTTP-запроса
+            Future<Object> future = completion.submit(
+                    SqlStatistics.propagate(RequestIds.propagate((Callable<Object>) task)));
+            futures.add(future);
+            return () -> {
+                if (!joined) {
+                    throw new IllegalStateException("Результат доступен только после join()");
+                }
+                return (T) future.resultNow();
+            };
+        }
+
+        /**
+         * Ждёт завершения всех подзадач. Если какая-то подзадача завершилась ошибкой,
+         * остальные отменяются, а ошибка пробрасывается (RuntimeException и Error — как есть).
+         *
+         * @throws IllegalStateException если ожидание было прервано
+         */
+        public void join() {
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    Future<Object> done = completion.take();
+                    try {
+                        done.get();
+                    } catch (ExecutionException e) {
+                        cancelAll();
+                        throw rethrow(e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Ожидание параллельных запросов прервано", e);
+            } catch (CancellationException e) {
+                cancelAll();
+                throw e;
+            }
+            joined = true;
+        }
+
+        /**
+         * Отменяет незавершённые подзадачи и освобождает потоки.
+         */
+        @Override
+        public void close() {
+            joined = true;
+            if (executor != null) {
+                cancelAll();
+                executor.close();
+            }
+        }
+
+        private void cancelAll() {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        private static <T> T call(Callable<? extends T> task) {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw rethrow(e);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable cause) {
+            if (cause instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.blog.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.cache.RenderedPageCacheFilter;
+
+/**
+ * Конфигурация кеширования отрисованных страниц ленты и постов.
+ * Отключается свойством blog.page-cache.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.page-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<RenderedPageCacheFilter> renderedPageCacheFilter(RenderedPageCache cache) {
+        FilterRegistrationBean<RenderedPageCacheFilter> registration =
+                new FilterRegistrationBean<>(new RenderedPageCacheFilter(cache));
+        registration.addUrlPatterns("/posts", "/posts/*");
+        return registration;
+    }
+}
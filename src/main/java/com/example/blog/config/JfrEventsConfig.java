@@ -0,0 +1,32 @@
+package com.example.blog.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.example.blog.jfr.RequestEventFilter;
+
+/**
+ * События Java Flight Recorder: HTTP-запросы (blog.HttpRequest), отрисовка
+ * шаблонов (blog.TemplateRender, пишет TemplateRenderTimingInterceptor) и
+ * SQL-запросы (blog.SqlStatement, пишет CountingDataSource), связанные
+ * идентификатором запроса.
+ *
+ * Пока запись JFR не ведётся, события ничего не стоят, поэтому они включены
+ * всегда; фильтр запросов (и вместе с ним идентификатор запроса)
+ * отключается свойством blog.jfr.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class JfrEventsConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestEventFilter> requestEventFilter() {
+        FilterRegistrationBean<RequestEventFilter> registration = new FilterRegistrationBean<>(new RequestEventFilter());
+        // после ограничения одновременных запросов, до подсчёта SQL и кеша страниц
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
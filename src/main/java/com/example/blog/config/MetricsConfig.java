@@ -0,0 +1,44 @@
+package com.example.blog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import com.example.blog.cache.PageCacheEndpoint;
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.metrics.CacheMetrics;
+import com.example.blog.metrics.TemplateRenderTimingInterceptor;
+import com.example.blog.storage.HotImageCache;
+
+/**
+ * Метрики приложения в формате Prometheus (/actuator/prometheus).
+ *
+ * Стандартные метрики Spring Boot: http.server.requests, пул HikariCP
+ * (hikaricp.connections.*: ожидание и время использования соединения),
+ * методы репозиториев Spring Data (spring.data.repository.invocations).
+ * Собственные: методы сервисов (@Timed, blog.service), отрисовка шаблонов
+ * (blog.template.render) и кеши (blog.cache.*). Настройки по умолчанию —
+ * в metrics.properties. Управление кешем страниц — endpoint Actuator
+ * {@link PageCacheEndpoint}, по HTTP не открытый.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    @Bean
+    public CacheMetrics cacheMetrics(RenderedPageCache pageCache, HotImageCache hotImageCache) {
+        return new CacheMetrics(pageCache, hotImageCache);
+    }
+
+    @Bean
+    public PageCacheEndpoint pageCacheEndpoint(RenderedPageCache pageCache) {
+        return new PageCacheEndpoint(pageCache);
+    }
+
+    @Bean
+    public MappedInterceptor templateRenderTimingInterceptor(MeterRegistry registry) {
+        return new MappedInterceptor((String[]) null, new TemplateRenderTimingInterceptor(registry));
+    }
+}
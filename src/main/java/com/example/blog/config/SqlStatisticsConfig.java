@@ -0,0 +1,51 @@
+package com.example.blog.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.example.blog.jdbc.CountingDataSource;
+import com.example.blog.jdbc.SqlStatisticsEndpoint;
+import com.example.blog.jdbc.SqlStatisticsFilter;
+import com.example.blog.jdbc.SqlStatisticsMonitor;
+
+/**
+ * Подсчёт SQL-запросов на HTTP-запрос: DataSource оборачивается
+ * в {@link CountingDataSource}, фильтр открывает область подсчёта на время запроса,
+ * отчёт доступен через endpoint Actuator {@link SqlStatisticsEndpoint}.
+ * Отключается свойством blog.sql-stats.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfig {
+
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource))
+                        ? new CountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatisticsMonitor monitor) {
+        return new SqlStatisticsEndpoint(monitor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(SqlStatisticsMonitor monitor) {
+        FilterRegistrationBean<SqlStatisticsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatisticsFilter(monitor));
+        // сразу после ограничения одновременных запросов, до кеша страниц
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.blog.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.example.blog.concurrent.ConcurrencyLimitFilter;
+import com.example.blog.concurrent.ConnectionBulkhead;
+
+/**
+ * Конфигурация режима виртуальных потоков (spring.threads.virtual.enabled=true,
+ * профиль virtual). Запросы Tomcat и задачи @Scheduled Spring Boot в этом режиме
+ * выполняет на виртуальных потоках сам; здесь добавляются ограничение числа
+ * одновременных запросов и ограничение числа одновременно выданных соединений
+ * размером пула (spring.datasource.hikari.maximum-pool-size): запросы, которым
+ * не хватило соединения, получают 503, а не ошибку таймаута пула.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${blog.virtual.max-concurrent-requests:1000}") int maxConcurrentRequests,
+            @Value("${blog.virtual.queue-timeout-ms:1000}") long queueTimeoutMillis) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maxConcurrentRequests, queueTimeoutMillis));
+        // раньше кеша страниц: ограничивается вся обработка запроса
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionBulkheadPostProcessor(Environment environment) {
+        int maxConnections = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        long waitMillis = environment.getProperty("blog.virtual.connection-wait-ms", Long.class, 1000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return (bean instanceof DataSource dataSource && !(bean instanceof ConnectionBulkhead))
+                        ? new ConnectionBulkhead(dataSource, maxConnections, waitMillis)
+                        : bean;
+            }
+        };
+    }
+}
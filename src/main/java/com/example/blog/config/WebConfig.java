@@ -1,17 +1,25 @@
 package com.example.blog.config;
 
+import java.util.Map;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 
+import com.example.blog.storage.ImageStorage;
+import com.example.blog.storage.UploadsResourceHandler;
 
-// Конфиг для загрузки изображений. Spring Boot нужно явно указать, что /uploads/** — это маппинг к file:///C:/myapp/uploads/
+
+// Конфиг для загрузки изображений: /uploads/** раздаётся из каталога хранилища изображений
+// (blog.uploads.dir, по умолчанию C:/myapp/uploads/). Там же лежат и старые файлы вида UUID_имя.
+// Отображение проверяется после контроллеров (/uploads/variants/** обрабатывает ImageVariantController),
+// но раньше стандартной раздачи статики.
 @Configuration
-public class WebConfig implements WebMvcConfigurer {
+public class WebConfig {
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:///C:/myapp/uploads/");
+    @Bean
+    public SimpleUrlHandlerMapping uploadsHandlerMapping(UploadsResourceHandler uploadsResourceHandler) {
+        return new SimpleUrlHandlerMapping(Map.of(ImageStorage.URL_PREFIX + "**", uploadsResourceHandler),
+                Ordered.LOWEST_PRECEDENCE - 2);
     }
 }
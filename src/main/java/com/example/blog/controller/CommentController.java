@@ -1,11 +1,18 @@
 package com.example.blog.controller;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.example.blog.model.CommentPage;
 import com.example.blog.service.CommentService;
 
 @Controller
@@ -18,6 +25,44 @@ public class CommentController {
         this.commentService = commentService;
     }
 
+    /**
+     * Возвращает следующую страницу комментариев в виде HTML-фрагмента
+     * для кнопки "Показать ещё" на странице поста.
+     *
+     * @param postId ID поста
+     * @param cursor курсор из предыдущей страницы (без него — первая страница)
+     * @param size   размер страницы
+     * @param model  модель для передачи данных во фрагмент
+     * @return фрагмент comments шаблона post.html
+     */
+    @GetMapping
+    public String loadComments(@PathVariable Integer postId,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE) int size,
+                               Model model) {
+        CommentPage page = findPage(postId, cursor, size);
+        model.addAttribute("postId", postId);
+        model.addAttribute("comments", page.getComments());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        return "post :: comments";
+    }
+
+    /**
+     * Возвращает страницу комментариев в JSON.
+     *
+     * @param postId ID поста
+     * @param cursor курсор из предыдущей страницы (без него — первая страница)
+     * @param size   размер страницы
+     * @return комментарии и курсор следующей страницы
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public CommentPage loadCommentsJson(@PathVariable Integer postId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE) int size) {
+        return findPage(postId, cursor, size);
+    }
+
     /**
      * Добавляет новый комментарий к посту.
      *
@@ -61,4 +106,12 @@ public class CommentController {
         commentService.deleteComment(commentId);
         return "redirect:/posts/" + postId;
     }
+
+    private CommentPage findPage(Integer postId, String cursor, int size) {
+        try {
+            return commentService.findPage(postId, cursor, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
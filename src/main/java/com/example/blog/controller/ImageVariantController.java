@@ -0,0 +1,74 @@
+package com.example.blog.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import com.example.blog.storage.ImageStorage;
+import com.example.blog.storage.ImageVariantService;
+import com.example.blog.storage.UploadsResourceHandler;
+
+@Controller
+public class ImageVariantController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantController.class);
+
+    private final ImageVariantService imageVariantService;
+    private final UploadsResourceHandler uploadsResourceHandler;
+    private final Path root;
+
+    public ImageVariantController(ImageVariantService imageVariantService,
+            UploadsResourceHandler uploadsResourceHandler, ImageStorage imageStorage) {
+        this.imageVariantService = imageVariantService;
+        this.uploadsResourceHandler = uploadsResourceHandler;
+        this.root = imageStorage.getRoot().toAbsolutePath().normalize();
+    }
+
+    /**
+     * Отдаёт уменьшенную копию изображения, при необходимости создавая её
+     * (для изображений, загруженных до появления копий). Готовый файл отдаётся
+     * так же, как остальные /uploads/** (кеширование, ETag, Range).
+     * Если копия не готова вовремя или её не удалось создать, выполняется
+     * перенаправление на оригинал.
+     *
+     * @param width    ширина копии
+     * @param request  запрос (путь оригинала берётся из URI после ширины)
+     * @param response ответ
+     */
+    @GetMapping(ImageVariantService.VARIANTS_URL_PREFIX + "{width}/**")
+    public void variant(@PathVariable("width") int width, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, ServletException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String relative = path.substring((ImageVariantService.VARIANTS_URL_PREFIX + width + "/").length());
+        if (!ImageVariantService.WIDTHS.contains(width) || relative.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path file;
+        try {
+            file = imageVariantService.variant(UriUtils.decode(relative, StandardCharsets.UTF_8), width);
+        } catch (IOException e) {
+            // копию не удалось записать: оригинал лучше, чем ошибка в srcset
+            log.warn("Не удалось создать копию {} шириной {}: {}", relative, width, e.toString());
+            file = null;
+        }
+        if (file == null) {
+            response.sendRedirect(request.getContextPath() + ImageStorage.URL_PREFIX + relative);
+            return;
+        }
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+                root.relativize(file).toString().replace('\\', '/'));
+        uploadsResourceHandler.handleRequest(request, response);
+    }
+}
@@ -1,94 +1,201 @@
 package com.example.blog.controller;
 
+import com.example.blog.cache.ContentVersions;
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.concurrent.ParallelQueries;
+import com.example.blog.service.CommentService;
 import com.example.blog.service.PostService;
+import com.example.blog.storage.ImageStorage;
+import com.example.blog.storage.ImageVariantService;
+import com.example.blog.storage.StoredImage;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.example.blog.model.Post;
+import com.example.blog.model.PostPreview;
 import com.example.blog.model.Tag;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
-import com.example.blog.model.Comment;
+import com.example.blog.model.CommentPage;
 
 @Controller
 @RequestMapping("/posts")
 public class PostController {
 
     private final PostService postService;
+    private final ContentVersions contentVersions;
+    private final ParallelQueries parallelQueries;
+    private final ImageStorage imageStorage;
+    private final ImageVariantService imageVariantService;
 
-    public PostController(PostService postService) {
+    public PostController(PostService postService, ContentVersions contentVersions,
+            ParallelQueries parallelQueries, ImageStorage imageStorage, ImageVariantService imageVariantService) {
         this.postService = postService;
+        this.contentVersions = contentVersions;
+        this.parallelQueries = parallelQueries;
+        this.imageStorage = imageStorage;
+        this.imageVariantService = imageVariantService;
     }
 
     /**
-     * Отображает список постов с поддержкой пагинации и фильтрации по тегу.
+     * Отображает список постов с поддержкой пагинации и фильтрации по тегам.
+     * Тегов может быть несколько (?tag=a&tag=b или ?tag=a,b): mode=all оставляет
+     * посты со всеми тегами, mode=any — с любым из них.
+     * Поддерживаются два режима: по номеру страницы (page, через OFFSET — для
+     * обратной совместимости) и по курсору (before/after — keyset по id поста),
+     * который используется навигацией в шаблоне.
+     * Если ETag клиента совпадает с текущей версией ленты, возвращается 304
+     * без обращения к базе и отрисовки шаблона.
+     * Подсчёт постов и запрос страницы выполняются параллельно.
      *
-     * @param tag   тег, по которому фильтруются посты (необязательный)
-     * @param page  номер страницы (начинается с 0)
-     * @param size  количество постов на странице
-     * @param model модель для передачи данных в шаблон
-     * @return шаблон posts.html
+     * @param tag        теги, по которым фильтруются посты (необязательный)
+     * @param mode       all — все теги, any — любой из тегов
+     * @param page       номер страницы (начинается с 0); в режиме курсора — только для отображения
+     * @param size       количество постов на странице
+     * @param before     курсор: показать посты с id меньше указанного (необязательный)
+     * @param after      курсор: показать посты с id больше указанного (необязательный)
+     * @param model      модель для передачи данных в шаблон
+     * @param webRequest текущий запрос: проверка If-None-Match и id постов страницы для кеша страниц
+     * @return шаблон posts.html или null, если отдан ответ 304
      */
     @GetMapping
     public String listPosts(
-            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "tag", required = false) List<String> tag,
+            @RequestParam(value = "mode", defaultValue = "all") String mode,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            Model model) {
+            @RequestParam(value = "before", required = false) Integer before,
+            @RequestParam(value = "after", required = false) Integer after,
+            Model model,
+            WebRequest webRequest) {
 
-        List<Post> posts = postService.findPaginated(page, size, tag);
-        int totalPosts = postService.countPosts(tag);
+        if (webRequest.checkNotModified(contentVersions.feedEtag())) {
+            return null;
+        }
+
+        List<String> tags = parseTags(tag == null ? null : String.join(",", tag)).stream().distinct().toList();
+        boolean matchAll = !"any".equalsIgnoreCase(mode);
+        int totalPosts;
+        List<PostPreview> posts;
+        int pageNumber = page;
+        try (ParallelQueries.Scope scope = parallelQueries.open()) {
+            ParallelQueries.Subtask<Integer> total = scope.fork(() -> postService.countPosts(tags, matchAll));
+            // Запрашиваем на один пост больше, чтобы узнать, есть ли следующая страница (в режиме курсора)
+            ParallelQueries.Subtask<List<PostPreview>> found;
+            if (before != null) {
+                found = scope.fork(() -> postService.findPageBefore(before, size + 1, tags, matchAll));
+            } else if (after != null) {
+                found = scope.fork(() -> postService.findPageAfter(after, size + 1, tags, matchAll));
+            } else {
+                found = scope.fork(() -> postService.findPaginated(pageNumber, size, tags, matchAll));
+            }
+            scope.join();
+            totalPosts = total.get();
+            posts = found.get();
+        }
+
+        boolean hasPrevious;
+        boolean hasNext;
+        if (before != null) {
+            hasNext = posts.size() > size;
+            posts = hasNext ? posts.subList(0, size) : posts;
+            hasPrevious = true;
+        } else if (after != null) {
+            hasPrevious = posts.size() > size;
+            if (hasPrevious) {
+                posts = posts.subList(1, posts.size());
+                hasNext = true;
+            } else {
+                // Дошли до начала ленты: показываем полную первую страницу
+                posts = postService.findPaginated(0, size, tags, matchAll);
+                hasNext = size < totalPosts;
+            }
+        } else {
+            hasPrevious = page > 0;
+            hasNext = (page + 1) * size < totalPosts;
+        }
+        if (!hasPrevious) {
+            page = 0;
+        }
 
+        // Теги загружаются одним запросом на страницу, счётчики комментариев приходят вместе с ней:
+        // число запросов не зависит от размера страницы
         Map<Integer, List<Tag>> postTags = postService.getTagsForPosts(posts);
-        Map<Integer, Integer> commentCounts = posts.stream()
-                .collect(Collectors.toMap(Post::getId,
-                        p -> postService.getCommentCountByPostId(p.getId())));
+        Map<Integer, Integer> commentCounts = postService.getCommentCountsForPosts(posts);
 
         model.addAttribute("posts", posts);
         model.addAttribute("postTags", postTags);
         model.addAttribute("commentCounts", commentCounts);
-        model.addAttribute("selectedTag", tag);
+        model.addAttribute("selectedTag", tags.isEmpty() ? null : String.join(", ", tags));
+        model.addAttribute("mode", matchAll ? "all" : "any");
 
         model.addAttribute("currentPage", page);
         model.addAttribute("pageSize", size);
         model.addAttribute("total", totalPosts);
+        model.addAttribute("prevCursor", hasPrevious && !posts.isEmpty() ? posts.get(0).getId() : null);
+        model.addAttribute("nextCursor", hasNext && !posts.isEmpty() ? posts.get(posts.size() - 1).getId() : null);
+
+        webRequest.setAttribute(RenderedPageCache.POST_IDS_ATTRIBUTE,
+                posts.stream().map(PostPreview::getId).toList(), RequestAttributes.SCOPE_REQUEST);
 
         return "posts";
     }
 
     /**
-     * Отображает отдельный пост со всеми тегами и комментариями.
+     * Отображает отдельный пост с тегами и первой страницей комментариев;
+     * следующие страницы подгружаются через GET /posts/{id}/comments.
+     * Пост, теги и комментарии загружаются параллельно.
+     * Если ETag клиента совпадает с текущей версией поста, возвращается 304.
      *
-     * @param id    ID поста
-     * @param model модель для передачи данных
-     * @return шаблон post.html или редирект на /posts, если пост не найден
+     * @param id         ID поста
+     * @param model      модель для передачи данных
+     * @param webRequest текущий запрос: проверка If-None-Match и id поста для кеша страниц
+     * @return шаблон post.html, null при ответе 304 или редирект на /posts, если пост не найден
      */
     @GetMapping("/{id}")
-    public String viewPost(@PathVariable Integer id, Model model) {
-        Post post = postService.findById(id);
+    public String viewPost(@PathVariable Integer id, Model model, WebRequest webRequest) {
+        if (webRequest.checkNotModified(contentVersions.postEtag(id))) {
+            return null;
+        }
+
+        Post post;
+        List<Tag> tags;
+        CommentPage comments;
+        try (ParallelQueries.Scope scope = parallelQueries.open()) {
+            ParallelQueries.Subtask<Post> foundPost = scope.fork(() -> postService.findById(id));
+            ParallelQueries.Subtask<List<Tag>> foundTags = scope.fork(() -> postService.findTagsByPostId(id));
+            ParallelQueries.Subtask<CommentPage> foundComments = scope.fork(
+                    () -> postService.findCommentPage(id, null, CommentService.DEFAULT_PAGE_SIZE));
+            scope.join();
+            post = foundPost.get();
+            tags = foundTags.get();
+            comments = foundComments.get();
+        }
         if (post == null) {
             return "redirect:/posts";
         }
 
-        List<Tag> tags = postService.findTagsByPostId(id);
-        List<Comment> comments = postService.findCommentsByPostId(id);
-
         model.addAttribute("post", post);
+        model.addAttribute("postId", id);
         model.addAttribute("tags", tags);
-        model.addAttribute("comments", comments);
+        model.addAttribute("comments", comments.getComments());
+        model.addAttribute("nextCursor", comments.getNextCursor());
         model.addAttribute("isNew", false);
 
+        webRequest.setAttribute(RenderedPageCache.POST_IDS_ATTRIBUTE, List.of(id), RequestAttributes.SCOPE_REQUEST);
         return "post";
     }
 
@@ -187,20 +294,15 @@ public class PostController {
      */
     @PostMapping("/{id}/like")
     public String likePost(@PathVariable Integer id, @RequestParam boolean like) {
-        Post post = postService.findById(id);
-        if (post == null) {
-            return "redirect:/posts";
-        }
-
-        int currentLikes = post.getLikes();
-        post.setLikes(like ? currentLikes + 1 : Math.max(0, currentLikes - 1));
-
-        postService.save(post); // сохранение без тегов
+        postService.like(id, like);
         return "redirect:/posts/" + id;
     }
 
     /**
      * Обрабатывает загрузку изображений через multipart.
+     * Файл потоком сохраняется в хранилище под хешем содержимого;
+     * повторная загрузка того же изображения возвращает тот же URL.
+     * Уменьшенные копии для srcset создаются в фоне.
      *
      * @param file файл изображения
      * @return JSON с URL загруженного изображения
@@ -208,18 +310,13 @@ public class PostController {
     @PostMapping(value = "/uploadImage", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public Map<String, String> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            String uploadDir = "C:/myapp/uploads/";
-            String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path filepath = Paths.get(uploadDir, filename);
-            Files.createDirectories(filepath.getParent());
-            file.transferTo(filepath);
-
-            String fileUrl = "/uploads/" + filename;
-
-            return Map.of("url", fileUrl);
-        } catch (Exception e) {
-            e.printStackTrace();
+        try (InputStream content = file.getInputStream()) {
+            StoredImage image = imageStorage.store(content, file.getOriginalFilename());
+            imageVariantService.generateAll(image.url());
+            return Map.of("url", image.url());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IOException e) {
             throw new RuntimeException("Ошибка загрузки файла: " + e.getMessage(), e);
         }
     }
@@ -230,7 +327,7 @@ public class PostController {
      * @param tags строка тегов через запятую
      * @return список отдельных тегов
      */
-    private List<String> parseTags(String tags) {
+    static List<String> parseTags(String tags) {
         if (tags == null || tags.isBlank()) {
             return Collections.emptyList();
         }
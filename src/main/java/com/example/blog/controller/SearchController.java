@@ -0,0 +1,66 @@
+package com.example.blog.controller;
+
+import java.util.List;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.example.blog.model.SearchHit;
+import com.example.blog.service.SearchService;
+
+@Controller
+@RequestMapping("/posts/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Поиск постов. В режиме "text" (по умолчанию) — полнотекстовый поиск по заголовкам,
+     * тегам, превью и тексту с постраничным выводом; в режиме "title" — поиск по части
+     * заголовка с учётом опечаток, одной страницей не больше
+     * {@link SearchService#MAX_TITLE_RESULTS} результатов.
+     *
+     * @param q     поисковый запрос
+     * @param mode  режим поиска: text или title
+     * @param page  номер страницы (начинается с 0)
+     * @param size  количество результатов на странице
+     * @param model модель для передачи данных в шаблон
+     * @return шаблон search.html
+     */
+    @GetMapping
+    public String search(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "mode", defaultValue = "text") String mode,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            Model model) {
+
+        List<SearchHit> hits;
+        boolean hasNext;
+        if ("title".equals(mode)) {
+            hits = searchService.searchTitles(q, SearchService.MAX_TITLE_RESULTS);
+            hasNext = false;
+            page = 0;
+        } else {
+            mode = "text";
+            // Запрашиваем на один результат больше, чтобы узнать, есть ли следующая страница
+            hits = searchService.search(q, size + 1, page * size);
+            hasNext = hits.size() > size;
+        }
+
+        model.addAttribute("query", q);
+        model.addAttribute("mode", mode);
+        model.addAttribute("hits", hasNext ? hits.subList(0, size) : hits);
+        model.addAttribute("currentPage", page);
+        model.addAttribute("pageSize", size);
+        model.addAttribute("hasNext", hasNext);
+
+        return "search";
+    }
+}
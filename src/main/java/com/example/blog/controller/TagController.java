@@ -0,0 +1,67 @@
+package com.example.blog.controller;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.example.blog.model.TagCount;
+import com.example.blog.service.PostCounterService;
+
+@Controller
+@RequestMapping("/tags")
+public class TagController {
+
+    /**
+     * Максимальное количество тегов в одном ответе.
+     */
+    static final int MAX_LIMIT = 500;
+
+    private final PostCounterService postCounterService;
+
+    public TagController(PostCounterService postCounterService) {
+        this.postCounterService = postCounterService;
+    }
+
+    /**
+     * Отображает облако тегов: самые популярные теги с количеством постов.
+     * Данные берутся из счётчиков в памяти, без запроса к базе.
+     *
+     * @param prefix (опционально) начало имени тега
+     * @param limit  максимальное количество тегов
+     * @param model  модель для передачи данных в шаблон
+     * @return шаблон tags.html
+     */
+    @GetMapping
+    public String tagCloud(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            Model model) {
+        List<TagCount> tags = postCounterService.getTopTags(prefix, Math.min(limit, MAX_LIMIT));
+
+        model.addAttribute("tags", tags);
+        model.addAttribute("prefix", prefix);
+        model.addAttribute("limit", limit);
+        model.addAttribute("maxCount", tags.isEmpty() ? 1 : tags.get(0).getCount());
+        return "tags";
+    }
+
+    /**
+     * Возвращает популярность тегов в JSON.
+     *
+     * @param prefix (опционально) начало имени тега
+     * @param limit  максимальное количество тегов
+     * @return список "тег — количество постов" по убыванию количества
+     */
+    @GetMapping(value = "/counts", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<TagCount> tagCounts(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return postCounterService.getTopTags(prefix, Math.min(limit, MAX_LIMIT));
+    }
+}
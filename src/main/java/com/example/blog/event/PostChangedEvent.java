@@ -0,0 +1,56 @@
+package com.example.blog.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Событие об изменении поста или связанных с ним данных (теги, комментарии, лайки).
+ * Публикуется сервисами после записи в базу и только для существующих постов;
+ * используется для инвалидации кешей отрисованных страниц и версий ETag.
+ */
+@Value
+@AllArgsConstructor
+public class PostChangedEvent {
+
+    /**
+     * Идентификатор изменённого поста.
+     */
+    Integer postId;
+
+    /**
+     * true, если изменился состав страниц ленты (пост создан, удалён или изменены
+     * его теги/содержимое); false — если изменились только данные, видимые
+     * внутри уже показанного поста (комментарии, лайки).
+     */
+    boolean feedStructureChanged;
+
+    /**
+     * true, если изменились только лайки поста.
+     */
+    boolean likesOnly;
+
+    /**
+     * true, если пост удалён.
+     */
+    boolean deleted;
+
+    public PostChangedEvent(Integer postId, boolean feedStructureChanged) {
+        this(postId, feedStructureChanged, false, false);
+    }
+
+    /**
+     * @param postId идентификатор поста, лайки которого записаны в базу
+     * @return событие об изменении только лайков
+     */
+    public static PostChangedEvent likes(Integer postId) {
+        return new PostChangedEvent(postId, false, true, false);
+    }
+
+    /**
+     * @param postId идентификатор удалённого поста
+     * @return событие об удалении поста
+     */
+    public static PostChangedEvent deleted(Integer postId) {
+        return new PostChangedEvent(postId, true, false, true);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.blog.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.example.blog.jfr.SqlStatementEvent;
+
+/**
+ * DataSource, регистрирующий в {@link SqlStatistics} каждый выполненный запрос,
+ * его время и число строк. Покрывает и JdbcTemplate, и репозитории Spring Data,
+ * так как оборачивает соединения пула.
+ *
+ * Кроме того, на каждый запрос записывается событие JFR {@link SqlStatementEvent}.
+ *
+ * Если в потоке нет открытой области подсчёта и запись JFR не ведётся,
+ * вызовы передаются исходным объектам JDBC без замеров.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+
+    public CountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSource.invoke(target, method, args);
+            String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : null;
+            return switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class, (Statement) result,
+                        new StatementHandler((Statement) result, null));
+                case "prepareStatement" -> wrap(PreparedStatement.class, (PreparedStatement) result,
+                        new StatementHandler((Statement) result, sql));
+                case "prepareCall" -> wrap(CallableStatement.class, (CallableStatement) result,
+                        new StatementHandler((Statement) result, sql));
+                default -> result;
+            };
+        }
+    }
+
+    private record StatementHandler(Statement target, String preparedSql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = CountingDataSource.invoke(target, method, args);
+                return ("getResultSet".equals(name) && result instanceof ResultSet rs && SqlStatistics.isActive())
+                        ? countRows(rs, null) : result;
+            }
+
+            boolean counting = SqlStatistics.isActive();
+            SqlStatementEvent event = new SqlStatementEvent();
+            boolean tracing = event.isEnabled();
+            if (!counting && !tracing) {
+                return CountingDataSource.invoke(target, method, args);
+            }
+
+            String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : preparedSql;
+            if (tracing) {
+                event.start(sql, name.endsWith("Batch"));
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = CountingDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                if (tracing) {
+                    event.markFailed();
+                    event.commit();
+                }
+                throw e;
+            } finally {
+                if (counting) {
+                    SqlStatistics.statementExecuted(sql, System.nanoTime() - start);
+                }
+            }
+
+            if (result instanceof ResultSet rs) {
+                // событие записывается при закрытии ResultSet, когда известно число строк
+                return countRows(rs, tracing ? event : null);
+            }
+            long rows = updatedRows(result);
+            if (counting && rows > 0) {
+                SqlStatistics.rowsProcessed(rows);
+            }
+            if (tracing) {
+                event.addRows(rows);
+                event.commit();
+            }
+            return result;
+        }
+
+        private static ResultSet countRows(ResultSet rs, SqlStatementEvent event) {
+            boolean[] committed = { false };
+            return wrap(ResultSet.class, rs, (proxy, method, args) -> {
+                Object result = CountingDataSource.invoke(rs, method, args);
+                String name = method.getName();
+                if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                    SqlStatistics.rowsProcessed(1);
+                    if (event != null) {
+                        event.addRows(1);
+                    }
+                } else if ("close".equals(name) && event != null && !committed[0]) {
+                    committed[0] = true;
+                    event.commit();
+                }
+                return result;
+            });
+        }
+
+        private static long updatedRows(Object result) {
+            long sum = 0;
+            if (result instanceof Integer updated) {
+                sum = updated;
+            } else if (result instanceof Long updated) {
+                sum = updated;
+            } else if (result instanceof int[] batch) {
+                for (int updated : batch) {
+                    sum += Math.max(0, updated);
+                }
+            } else if (result instanceof long[] batch) {
+                for (long updated : batch) {
+                    sum += Math.max(0, updated);
+                }
+            }
+            return Math.max(0, sum);
+        }
+    }
+}
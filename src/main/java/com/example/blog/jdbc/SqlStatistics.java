@@ -0,0 +1,176 @@
+package com.example.blog.jdbc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Подсчёт SQL-запросов, строк и времени в базе в пределах области (HTTP-запроса или теста).
+ *
+ * Область открывается {@link #start()} в текущем потоке и закрывается
+ * try-with-resources; области вкладываются, и каждый запрос к базе учитывается
+ * во всех открытых областях потока. Запросы из других потоков учитываются,
+ * только если задача обёрнута {@link #propagate(Callable)} (так делает ParallelQueries).
+ * Сами запросы регистрирует {@link CountingDataSource}.
+ */
+public final class SqlStatistics {
+
+    /**
+     * Сколько разных текстов SQL запоминается в одной области.
+     */
+    private static final int MAX_DISTINCT_SQL = 200;
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private SqlStatistics() {
+    }
+
+    /**
+     * Итоги области.
+     *
+     * @param statements      количество выполненных запросов (пакет — один запрос)
+     * @param rows            прочитанные и изменённые строки
+     * @param dbTimeNanos     время выполнения запросов
+     * @param statementsBySql количество выполнений каждого текста SQL
+     */
+    public record Snapshot(long statements, long rows, long dbTimeNanos, Map<String, Long> statementsBySql) {
+
+        public long getDbTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(dbTimeNanos);
+        }
+
+        /**
+         * @return чаще всего выполнявшийся текст SQL (кандидат на N+1) или null
+         */
+        public Map.Entry<String, Long> mostRepeated() {
+            return statementsBySql.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+
+    /**
+     * Открытая область подсчёта.
+     */
+    public static final class Recording implements AutoCloseable {
+
+        private final Recording parent;
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Map<String, LongAdder> bySql = new ConcurrentHashMap<>();
+
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * @return итоги на текущий момент
+         */
+        public Snapshot snapshot() {
+            Map<String, Long> counts = new HashMap<>();
+            bySql.forEach((sql, count) -> counts.put(sql, count.sum()));
+            return new Snapshot(statements.sum(), rows.sum(), nanos.sum(), Collections.unmodifiableMap(counts));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+
+        private void statement(String sql, long elapsedNanos) {
+            statements.increment();
+            nanos.add(elapsedNanos);
+            if (sql != null && (bySql.size() < MAX_DISTINCT_SQL || bySql.containsKey(sql))) {
+                bySql.computeIfAbsent(sql, key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    /**
+     * Открывает область подсчёта в текущем потоке.
+     *
+     * @return область; должна закрываться (try-with-resources)
+     */
+    public static Recording start() {
+        Recording recording = new Recording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    /**
+     * Выполняет действие и возвращает статистику его запросов к базе.
+     *
+     * @param action действие (например, запрос через MockMvc)
+     * @return итоги
+     */
+    public static Snapshot measure(ThrowingRunnable action) throws Exception {
+        try (Recording recording = start()) {
+            action.run();
+            return recording.snapshot();
+        }
+    }
+
+    /**
+     * Переносит открытую в текущем потоке область в задачу, выполняемую другим потоком.
+     *
+     * @param task задача
+     * @param <T>  тип результата
+     * @return задача, учитывающая свои запросы в области вызывающего потока
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Recording captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return true, если в текущем потоке открыта область подсчёта
+     */
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void statementExecuted(String sql, long elapsedNanos) {
+        for (Recording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.statement(sql, elapsedNanos);
+        }
+    }
+
+    static void rowsProcessed(long count) {
+        for (Recording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.rows.add(count);
+        }
+    }
+
+    /**
+     * Действие, которое может бросить проверяемое исключение.
+     */
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+
+        void run() throws Exception;
+    }
+}
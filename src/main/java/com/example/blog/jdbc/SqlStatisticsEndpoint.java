@@ -0,0 +1,43 @@
+package com.example.blog.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Endpoint Actuator со статистикой SQL-запросов: GET /actuator/sqlstats —
+ * статистика по эндпоинтам и последние запросы, превысившие пороги (N+1),
+ * POST /actuator/sqlstats — сброс.
+ *
+ * Отчёт содержит текст SQL и адреса запросов, поэтому по HTTP endpoint
+ * не открыт: его нужно явно добавить в management.endpoints.web.exposure.include,
+ * желательно вместе с отдельным портом management.server.port.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private final SqlStatisticsMonitor monitor;
+
+    public SqlStatisticsEndpoint(SqlStatisticsMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * @return статистика SQL-запросов
+     */
+    @ReadOperation
+    public SqlStatisticsMonitor.Report report() {
+        return monitor.getReport();
+    }
+
+    /**
+     * Сбрасывает накопленную статистику.
+     *
+     * @return пустая статистика
+     */
+    @WriteOperation
+    public SqlStatisticsMonitor.Report reset() {
+        monitor.reset();
+        return monitor.getReport();
+    }
+}
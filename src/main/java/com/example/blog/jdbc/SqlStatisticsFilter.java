@@ -0,0 +1,41 @@
+package com.example.blog.jdbc;
+
+import java.io.IOException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Открывает область {@link SqlStatistics} на время HTTP-запроса и передаёт
+ * итоги в {@link SqlStatisticsMonitor}. Запросы группируются по шаблону
+ * пути обработчика (GET /posts/{id}), чтобы статистика не дробилась по id.
+ * Ответы, отданные без обработчика и без обращения к базе (например,
+ * из кеша страниц), не учитываются.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final SqlStatisticsMonitor monitor;
+
+    public SqlStatisticsFilter(SqlStatisticsMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatistics.Recording recording = SqlStatistics.start()) {
+            chain.doFilter(request, response);
+            SqlStatistics.Snapshot snapshot = recording.snapshot();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern == null && snapshot.statements() == 0) {
+                // ответ без обработчика и без базы (кеш страниц, 404) — не учитывается
+                return;
+            }
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "(без обработчика)");
+            monitor.requestCompleted(endpoint, request.getRequestURI(), snapshot);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.blog.jdbc;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика SQL по эндпоинтам и список запросов-нарушителей.
+ *
+ * Нарушитель — HTTP-запрос, выполнивший больше blog.sql-stats.max-statements
+ * запросов к базе или повторивший один и тот же SQL больше
+ * blog.sql-stats.max-repeats раз (типичный признак N+1). Нарушители
+ * пишутся в лог и хранятся в памяти (последние {@link #MAX_OFFENDERS}).
+ */
+@Component
+public class SqlStatisticsMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsMonitor.class);
+
+    static final int MAX_OFFENDERS = 100;
+
+    /**
+     * Статистика эндпоинта.
+     */
+    public record EndpointStats(String endpoint, long requests, long statements, long rows, long dbTimeMillis,
+            long maxStatements, long offenders) {
+
+        public double getStatementsPerRequest() {
+            return requests == 0 ? 0.0 : (double) statements / requests;
+        }
+    }
+
+    /**
+     * HTTP-запрос, превысивший пороги.
+     */
+    public record Offender(Instant at, String endpoint, String uri, long statements, long rows, long dbTimeMillis,
+            String repeatedSql, long repeats) {
+    }
+
+    /**
+     * Отчёт для /actuator/sqlstats.
+     */
+    public record Report(int maxStatements, int maxRepeats, List<EndpointStats> endpoints, List<Offender> offenders) {
+    }
+
+    private static final class Totals {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder dbTimeNanos = new LongAdder();
+        final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        final LongAdder offenders = new LongAdder();
+    }
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final Map<String, Totals> endpoints = new ConcurrentHashMap<>();
+    private final Deque<Offender> offenders = new ArrayDeque<>();
+
+    /**
+     * @param maxStatements допустимое количество запросов к базе на HTTP-запрос
+     * @param maxRepeats    допустимое количество выполнений одного SQL на HTTP-запрос
+     */
+    public SqlStatisticsMonitor(@Value("${blog.sql-stats.max-statements:20}") int maxStatements,
+            @Value("${blog.sql-stats.max-repeats:5}") int maxRepeats) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    /**
+     * Учитывает завершённый HTTP-запрос.
+     *
+     * @param endpoint шаблон пути (например, GET /posts/{id})
+     * @param uri      фактический URI
+     * @param snapshot статистика запроса
+     * @return true, если запрос превысил пороги
+     */
+    public boolean requestCompleted(String endpoint, String uri, SqlStatistics.Snapshot snapshot) {
+        Totals totals = endpoints.computeIfAbsent(endpoint, key -> new Totals());
+        totals.requests.increment();
+        totals.statements.add(snapshot.statements());
+        totals.rows.add(snapshot.rows());
+        totals.dbTimeNanos.add(snapshot.dbTimeNanos());
+        totals.maxStatements.accumulate(snapshot.statements());
+
+        Map.Entry<String, Long> repeated = snapshot.mostRepeated();
+        boolean tooMany = snapshot.statements() > maxStatements;
+        boolean tooRepeated = repeated != null && repeated.getValue() > maxRepeats;
+        if (!tooMany && !tooRepeated) {
+            return false;
+        }
+
+        totals.offenders.increment();
+        Offender offender = new Offender(Instant.now(), endpoint, uri, snapshot.statements(), snapshot.rows(),
+                snapshot.getDbTimeMillis(), tooRepeated ? repeated.getKey() : null,
+                tooRepeated ? repeated.getValue() : 0);
+        synchronized (offenders) {
+            if (offenders.size() == MAX_OFFENDERS) {
+                offenders.removeFirst();
+            }
+            offenders.addLast(offender);
+        }
+        if (tooRepeated) {
+            log.warn("{} ({}): {} SQL-запросов, один и тот же запрос выполнен {} раз (возможно, N+1): {}",
+                    endpoint, uri, snapshot.statements(), repeated.getValue(), repeated.getKey());
+        } else {
+            log.warn("{} ({}): {} SQL-запросов (порог {}), {} строк, {} мс в базе",
+                    endpoint, uri, snapshot.statements(), maxStatements, snapshot.rows(), snapshot.getDbTimeMillis());
+        }
+        return true;
+    }
+
+    /**
+     * @return статистика по эндпоинтам (по убыванию среднего числа запросов) и последние нарушители
+     */
+    public Report getReport() {
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.forEach((endpoint, totals) -> stats.add(new EndpointStats(endpoint, totals.requests.sum(),
+                totals.statements.sum(), totals.rows.sum(), totals.dbTimeNanos.sum() / 1_000_000,
+                totals.maxStatements.get(), totals.offenders.sum())));
+        stats.sort(Comparator.comparingDouble(EndpointStats::getStatementsPerRequest).reversed());
+        List<Offender> recent;
+        synchronized (offenders) {
+            recent = new ArrayList<>(offenders);
+        }
+        return new Report(maxStatements, maxRepeats, stats, recent.reversed());
+    }
+
+    /**
+     * Сбрасывает накопленную статистику.
+     */
+    public void reset() {
+        endpoints.clear();
+        synchronized (offenders) {
+            offenders.clear();
+        }
+    }
+}
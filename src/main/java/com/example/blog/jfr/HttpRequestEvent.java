@@ -0,0 +1,72 @@
+package com.example.blog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR на HTTP-запрос: от входа в цепочку фильтров до записи ответа.
+ * События SQL и отрисовки шаблонов этого запроса имеют тот же Request Id.
+ */
+@Name(HttpRequestEvent.NAME)
+@Label("HTTP Request")
+@Category({ "Blog", "Web" })
+@Description("Обработка HTTP-запроса")
+@StackTrace(false)
+public final class HttpRequestEvent extends Event {
+
+    public static final String NAME = "blog.HttpRequest";
+
+    @Label("Request Id")
+    private String requestId;
+
+    @Label("Method")
+    private String method;
+
+    @Label("URI")
+    private String uri;
+
+    @Label("Endpoint")
+    @Description("Шаблон пути обработчика, например /posts/{id}")
+    private String endpoint;
+
+    @Label("Handler")
+    private String handler;
+
+    @Label("Status")
+    private int status;
+
+    /**
+     * Начинает замер запроса.
+     *
+     * @param id            идентификатор запроса
+     * @param requestMethod HTTP-метод
+     * @param requestUri    путь запроса
+     */
+    public void start(String id, String requestMethod, String requestUri) {
+        requestId = id;
+        method = requestMethod;
+        uri = requestUri;
+        begin();
+    }
+
+    /**
+     * Завершает замер и записывает событие, если оно проходит порог длительности.
+     *
+     * @param pattern        шаблон пути обработчика или null
+     * @param handlerName    обработчик (Controller#method) или null
+     * @param responseStatus код ответа
+     */
+    public void finish(String pattern, String handlerName, int responseStatus) {
+        end();
+        if (shouldCommit()) {
+            endpoint = pattern;
+            handler = handlerName;
+            status = responseStatus;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.blog.jfr;
+
+import java.io.IOException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Назначает HTTP-запросу идентификатор и записывает событие {@link HttpRequestEvent}.
+ *
+ * Идентификатор берётся из заголовка X-Request-Id (если его передал балансировщик)
+ * или генерируется, возвращается в ответе и доступен через {@link RequestIds#current()}
+ * событиям SQL и шаблонов этого запроса.
+ */
+public class RequestEventFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = requestId(request);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        RequestIds.set(requestId);
+
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.start(requestId, request.getMethod(), request.getRequestURI());
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestIds.clear();
+            if (event.isEnabled()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.finish(pattern != null ? pattern.toString() : null,
+                        handlerName(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)),
+                        response.getStatus());
+            }
+        }
+    }
+
+    private static String requestId(HttpServletRequest request) {
+        String header = request.getHeader(REQUEST_ID_HEADER);
+        return (header != null && !header.isBlank() && header.length() <= MAX_REQUEST_ID_LENGTH)
+                ? header
+                : RequestIds.next();
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+        }
+        return (handler != null) ? handler.getClass().getSimpleName() : null;
+    }
+}
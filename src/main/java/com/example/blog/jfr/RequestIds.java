@@ -0,0 +1,70 @@
+package com.example.blog.jfr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Идентификатор текущего HTTP-запроса для связи событий JFR между собой.
+ *
+ * Идентификатор назначается {@link RequestEventFilter} и хранится в потоке
+ * обработки; в задачи других потоков (ParallelQueries) он переносится
+ * через {@link #propagate(Callable)}.
+ */
+public final class RequestIds {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String PREFIX = Long.toString(System.currentTimeMillis() / 1000, 36) + "-";
+
+    private RequestIds() {
+    }
+
+    /**
+     * @return идентификатор запроса, обрабатываемого текущим потоком, или null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return новый идентификатор, уникальный в пределах запуска приложения
+     */
+    static String next() {
+        return PREFIX + Long.toString(SEQUENCE.incrementAndGet(), 36);
+    }
+
+    static void set(String requestId) {
+        CURRENT.set(requestId);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Переносит идентификатор текущего запроса в задачу, выполняемую другим потоком.
+     *
+     * @param task задача
+     * @param <T>  тип результата
+     * @return задача, события которой относятся к запросу вызывающего потока
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        String captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+}
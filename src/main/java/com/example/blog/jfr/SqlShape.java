@@ -0,0 +1,52 @@
+package com.example.blog.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Приводит SQL к "форме" для событий JFR: литералы заменяются на ?,
+ * списки параметров IN (?, ?, ...) сворачиваются, пробелы нормализуются.
+ * Запросы, отличающиеся только значениями или длиной списка, получают
+ * одну форму, и их можно группировать в JMC.
+ *
+ * Текст запросов почти всегда берётся из констант, поэтому результаты
+ * кешируются (до {@value #MAX_CACHED} форм).
+ */
+final class SqlShape {
+
+    static final int MAX_CACHED = 1024;
+    static final int MAX_LENGTH = 2048;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlShape() {
+    }
+
+    static String of(String sql) {
+        if (sql == null) {
+            return "(неизвестно)";
+        }
+        String shape = CACHE.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+        return (shape.length() > MAX_LENGTH) ? shape.substring(0, MAX_LENGTH) + "..." : shape;
+    }
+}
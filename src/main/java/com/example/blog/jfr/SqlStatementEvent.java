@@ -0,0 +1,71 @@
+package com.example.blog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR на каждый выполненный SQL-запрос: форма запроса, число строк
+ * и идентификатор HTTP-запроса. Длительность — от выполнения запроса
+ * до окончания чтения результата (закрытия ResultSet).
+ *
+ * Используется так же, как любое событие JFR: экземпляр создаётся до проверки
+ * {@link #isEnabled()}, и, пока запись не ведётся, JIT убирает и проверку, и выделение памяти.
+ */
+@Name(SqlStatementEvent.NAME)
+@Label("SQL Statement")
+@Category({ "Blog", "SQL" })
+@Description("Выполнение SQL-запроса через JdbcTemplate или репозиторий")
+@StackTrace(false)
+public final class SqlStatementEvent extends Event {
+
+    public static final String NAME = "blog.SqlStatement";
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Rows")
+    @Description("Прочитанные или изменённые строки")
+    private long rows;
+
+    @Label("Batch")
+    private boolean batch;
+
+    @Label("Failed")
+    private boolean failed;
+
+    @Label("Request Id")
+    private String requestId;
+
+    /**
+     * Начинает замер запроса.
+     *
+     * @param statementSql текст запроса
+     * @param isBatch      true для executeBatch
+     */
+    public void start(String statementSql, boolean isBatch) {
+        sql = SqlShape.of(statementSql);
+        batch = isBatch;
+        requestId = RequestIds.current();
+        begin();
+    }
+
+    /**
+     * Учитывает прочитанные или изменённые строки.
+     *
+     * @param count число строк
+     */
+    public void addRows(long count) {
+        rows += count;
+    }
+
+    /**
+     * Отмечает запрос, завершившийся ошибкой.
+     */
+    public void markFailed() {
+        failed = true;
+    }
+}
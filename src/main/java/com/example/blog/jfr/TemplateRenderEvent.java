@@ -0,0 +1,48 @@
+package com.example.blog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR на отрисовку шаблона Thymeleaf.
+ */
+@Name(TemplateRenderEvent.NAME)
+@Label("Template Render")
+@Category({ "Blog", "Web" })
+@Description("Отрисовка шаблона Thymeleaf")
+@StackTrace(false)
+public final class TemplateRenderEvent extends Event {
+
+    public static final String NAME = "blog.TemplateRender";
+
+    @Label("Template")
+    private String template;
+
+    @Label("Request Id")
+    private String requestId;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * Начинает замер отрисовки.
+     *
+     * @param view имя шаблона
+     */
+    public void start(String view) {
+        template = view;
+        requestId = RequestIds.current();
+        begin();
+    }
+
+    /**
+     * Отмечает отрисовку, завершившуюся ошибкой.
+     */
+    public void markFailed() {
+        failed = true;
+    }
+}
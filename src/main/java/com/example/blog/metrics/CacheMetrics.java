@@ -0,0 +1,66 @@
+package com.example.blog.metrics;
+
+import java.util.function.ToDoubleFunction;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.storage.HotImageCache;
+
+/**
+ * Метрики кешей: обращения (blog.cache.requests с тегом result=hit|miss),
+ * вытеснения, размер и доля попаданий. Значения читаются из статистики
+ * кешей в момент сбора метрик, на обработку запросов это не влияет.
+ */
+public class CacheMetrics implements MeterBinder {
+
+    private final RenderedPageCache pageCache;
+    private final HotImageCache hotImageCache;
+
+    public CacheMetrics(RenderedPageCache pageCache, HotImageCache hotImageCache) {
+        this.pageCache = pageCache;
+        this.hotImageCache = hotImageCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "pages", pageCache, cache -> cache.getStats().hits(), cache -> cache.getStats().misses(),
+                cache -> cache.getStats().evictions(), cache -> cache.getStats().size(),
+                cache -> cache.getStats().getHitRate());
+        bind(registry, "images", hotImageCache, cache -> cache.getStats().hits(), cache -> cache.getStats().misses(),
+                cache -> cache.getStats().evictions(), cache -> cache.getStats().size(),
+                cache -> cache.getStats().getHitRate());
+        Gauge.builder("blog.cache.bytes", hotImageCache, cache -> cache.getStats().bytes())
+                .description("Объём изображений в памяти")
+                .baseUnit("bytes")
+                .tag("cache", "images")
+                .register(registry);
+    }
+
+    private static <C> void bind(MeterRegistry registry, String name, C cache, ToDoubleFunction<C> hits,
+            ToDoubleFunction<C> misses, ToDoubleFunction<C> evictions, ToDoubleFunction<C> size,
+            ToDoubleFunction<C> hitRate) {
+        FunctionCounter.builder("blog.cache.requests", cache, hits)
+                .description("Обращения к кешу")
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("blog.cache.requests", cache, misses)
+                .description("Обращения к кешу")
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("blog.cache.evictions", cache, evictions)
+                .description("Вытеснения из кеша")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("blog.cache.size", cache, size)
+                .description("Количество записей в кеше")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("blog.cache.hit.ratio", cache, hitRate)
+                .description("Доля попаданий с момента запуска")
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.blog.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.blog.jfr.TemplateRenderEvent;
+
+/**
+ * Время отрисовки шаблонов: метрика blog.template.render с тегом template
+ * и событие JFR {@link TemplateRenderEvent}, если идёт запись.
+ *
+ * Отрисовка выполняется между postHandle и afterCompletion, поэтому
+ * замер не требует обёртки над ViewResolver или шаблонизатором.
+ * Редиректы, forward и ответы без шаблона (@ResponseBody) не учитываются.
+ */
+public class TemplateRenderTimingInterceptor implements HandlerInterceptor {
+
+    public static final String METRIC = "blog.template.render";
+
+    private static final String VIEW_ATTRIBUTE = TemplateRenderTimingInterceptor.class.getName() + ".view";
+    private static final String START_ATTRIBUTE = TemplateRenderTimingInterceptor.class.getName() + ".start";
+    private static final String EVENT_ATTRIBUTE = TemplateRenderTimingInterceptor.class.getName() + ".event";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TemplateRenderTimingInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        String view = (modelAndView != null) ? modelAndView.getViewName() : null;
+        if (view == null || view.startsWith("redirect:") || view.startsWith("forward:")) {
+            return;
+        }
+        request.setAttribute(VIEW_ATTRIBUTE, view);
+        TemplateRenderEvent event = new TemplateRenderEvent();
+        if (event.isEnabled()) {
+            event.start(view);
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(VIEW_ATTRIBUTE) instanceof String view
+                && request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            // таймер на шаблон создаётся один раз: поиск по реестру дороже самого замера
+            timers.computeIfAbsent(view, name -> Timer.builder(METRIC)
+                    .description("Время отрисовки шаблона Thymeleaf")
+                    .tag("template", name)
+                    .register(registry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof TemplateRenderEvent event) {
+            if (ex != null) {
+                event.markFailed();
+            }
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.blog.model;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Страница комментариев поста в порядке (created_at, id).
+ */
+@Value
+public class CommentPage {
+
+    List<Comment> comments;
+
+    /**
+     * Курсор для загрузки следующей страницы или null, если комментариев больше нет.
+     */
+    String nextCursor;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Data
@@ -27,5 +28,22 @@ public class Post {
 
     private String text;
 
+    /**
+     * Количество лайков. Изменяется только пакетными UPDATE из LikeCounterService,
+     * поэтому сохранение поста (например, из формы редактирования) его не перезаписывает.
+     */
+    @ReadOnlyProperty
     private int likes;
+
+    /**
+     * Денормализованный счётчик комментариев (колонка comment_count).
+     * Изменяется только атомарными UPDATE из CommentService, поэтому при сохранении
+     * поста через репозиторий не записывается.
+     */
+    @ReadOnlyProperty
+    private int commentCount;
+
+    public Post(Integer id, String title, String preview, String imageUrl, String text, int likes) {
+        this(id, title, preview, imageUrl, text, likes, 0);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.blog.model;
+
+import lombok.Value;
+
+/**
+ * Неизменяемая проекция поста для ленты.
+ * В отличие от {@link Post}, не содержит полного текста поста — только
+ * ограниченный по длине фрагмент (excerpt), вычисляемый в SQL.
+ */
+@Value
+public class PostPreview {
+
+    /**
+     * Максимальная длина фрагмента текста в ленте (в символах).
+     */
+    public static final int EXCERPT_LENGTH = 300;
+
+    Integer id;
+
+    String title;
+
+    String preview;
+
+    String imageUrl;
+
+    int likes;
+
+    int commentCount;
+
+    /**
+     * Первый абзац текста поста, обрезанный до {@link #EXCERPT_LENGTH} символов.
+     */
+    String excerpt;
+}
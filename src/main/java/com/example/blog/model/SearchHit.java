@@ -0,0 +1,34 @@
+package com.example.blog.model;
+
+import lombok.Value;
+
+/**
+ * Результат полнотекстового поиска: пост, его релевантность и фрагмент текста
+ * с подсвеченными совпадениями.
+ */
+@Value
+public class SearchHit {
+
+    Integer id;
+
+    String title;
+
+    String preview;
+
+    String imageUrl;
+
+    int likes;
+
+    int commentCount;
+
+    /**
+     * Релевантность (ts_rank_cd): чем больше, тем выше пост в результатах.
+     */
+    double rank;
+
+    /**
+     * Фрагмент текста с совпадениями, обёрнутыми в &lt;mark&gt;.
+     * Остальной текст экранирован, поэтому фрагмент можно выводить как HTML.
+     */
+    String snippet;
+}
@@ -0,0 +1,14 @@
+package com.example.blog.model;
+
+import lombok.Value;
+
+/**
+ * Тег и количество постов с ним (для облака тегов).
+ */
+@Value
+public class TagCount {
+
+    String name;
+
+    int count;
+}
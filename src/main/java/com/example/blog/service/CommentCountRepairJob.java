@@ -0,0 +1,96 @@
+package com.example.blog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Периодическая сверка денормализованного счётчика posts.comment_count
+ * с реальным количеством строк в таблице comments.
+ *
+ * Обход идёт диапазонами id постов фиксированного размера; каждый диапазон
+ * обрабатывается в отдельной короткой транзакции. Строки постов диапазона
+ * блокируются FOR UPDATE до пересчёта, чтобы одновременное добавление
+ * комментария не "откатило" исправленное значение.
+ *
+ * Удаление поста отдельной обработки не требует: комментарии удаляются
+ * каскадно (ON DELETE CASCADE), а счётчик исчезает вместе со строкой поста.
+ */
+@Component
+public class CommentCountRepairJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountRepairJob.class);
+
+    private static final String REPAIR_SQL = """
+            UPDATE posts p
+            SET comment_count = c.actual
+            FROM (
+                SELECT p2.id, COUNT(cm.id) AS actual
+                FROM posts p2
+                LEFT JOIN comments cm ON cm.post_id = p2.id
+                WHERE p2.id > ? AND p2.id <= ?
+                GROUP BY p2.id
+            ) c
+            WHERE p.id = c.id AND p.comment_count <> c.actual
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param jdbcTemplate        JdbcTemplate для выполнения SQL-запросов
+     * @param transactionTemplate шаблон транзакции для обработки одного диапазона
+     * @param batchSize           размер диапазона id постов, обрабатываемого за одну транзакцию
+     */
+    public CommentCountRepairJob(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${blog.comment-count.repair-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Пересчитывает счётчики комментариев всех постов пакетами.
+     *
+     * @return количество исправленных постов
+     */
+    @Scheduled(initialDelayString = "${blog.comment-count.repair-interval-ms:3600000}",
+            fixedDelayString = "${blog.comment-count.repair-interval-ms:3600000}")
+    public int repair() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM posts", Integer.class);
+        int lastId = (maxId != null) ? maxId : 0;
+
+        int repaired = 0;
+        for (int from = 0; from < lastId; from += batchSize) {
+            repaired += repairRange(from, from + batchSize);
+        }
+        if (repaired > 0) {
+            log.warn("Исправлено расхождений comment_count: {}", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Пересчитывает счётчики комментариев для постов с id в диапазоне (fromId, toId].
+     *
+     * @param fromId нижняя граница диапазона (не включается)
+     * @param toId   верхняя граница диапазона (включается)
+     * @return количество исправленных постов
+     */
+    int repairRange(int fromId, int toId) {
+        Integer updated = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM posts WHERE id > ? AND id <= ? ORDER BY id FOR UPDATE",
+                    Integer.class, fromId, toId);
+            return jdbcTemplate.update(REPAIR_SQL, fromId, toId);
+        });
+        return (updated != null) ? updated : 0;
+    }
+}
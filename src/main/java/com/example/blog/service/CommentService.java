@@ -1,35 +1,67 @@
 package com.example.blog.service;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.example.blog.event.PostChangedEvent;
 import com.example.blog.model.Comment;
+import com.example.blog.model.CommentPage;
 import com.example.blog.repository.CommentRepository;
 
 /**
  * Сервис для работы с комментариями.
- * Отвечает за добавление, обновление, удаление и получение комментариев.
+ * Отвечает за добавление, обновление, удаление и получение комментариев,
+ * а также за поддержание счётчика posts.comment_count.
  */
 @Service
+@Timed("blog.service")
 public class CommentService {
 
+    /**
+     * Размер страницы комментариев по умолчанию.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Максимальный размер страницы комментариев.
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String COMMENT_COLUMNS = "id, post_id, author, content, created_at";
+
     private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Конструктор для внедрения зависимости репозитория комментариев.
+     * Конструктор для внедрения зависимостей.
      *
      * @param commentRepository репозиторий комментариев
+     * @param jdbcTemplate      JdbcTemplate для обновления счётчика комментариев
+     * @param eventPublisher    публикатор событий об изменении постов
      */
-    public CommentService(CommentRepository commentRepository) {
+    public CommentService(CommentRepository commentRepository, JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Добавляет новый комментарий к посту.
+     * Добавляет новый комментарий к посту и увеличивает счётчик комментариев поста
+     * в той же транзакции.
      *
      * @param postId  идентификатор поста, к которому добавляется комментарий
      * @param content текст комментария
      */
+    @Transactional
     public void addComment(Integer postId, String content) {
         Comment comment = new Comment();
         comment.setPostId(postId);
@@ -37,6 +69,9 @@ public class CommentService {
         comment.setContent(content);
         comment.setCreatedAt(LocalDateTime.now());
         commentRepository.save(comment);
+
+        jdbcTemplate.update("UPDATE posts SET comment_count = comment_count + 1 WHERE id = ?", postId);
+        eventPublisher.publishEvent(new PostChangedEvent(postId, false));
     }
 
     /**
@@ -52,16 +87,29 @@ public class CommentService {
         if (existing != null) {
             existing.setContent(content);
             commentRepository.save(existing);
+            eventPublisher.publishEvent(new PostChangedEvent(existing.getPostId(), false));
         }
     }
 
     /**
-     * Удаляет комментарий по его идентификатору.
+     * Удаляет комментарий по его идентификатору и уменьшает счётчик комментариев поста.
+     * Удаление и декремент выполняются одним SQL-выражением, поэтому счётчик
+     * уменьшается только если комментарий действительно был удалён.
      *
      * @param commentId идентификатор комментария для удаления
      */
+    @Transactional
     public void deleteComment(Integer commentId) {
-        commentRepository.deleteById(commentId);
+        String sql = """
+                WITH deleted AS (
+                    DELETE FROM comments WHERE id = ? RETURNING post_id
+                )
+                UPDATE posts SET comment_count = comment_count - 1
+                WHERE id IN (SELECT post_id FROM deleted)
+                RETURNING id
+                """;
+        List<Integer> postIds = jdbcTemplate.queryForList(sql, Integer.class, commentId);
+        postIds.forEach(postId -> eventPublisher.publishEvent(new PostChangedEvent(postId, false)));
     }
 
     /**
@@ -73,4 +121,72 @@ public class CommentService {
     public List<Comment> findByPostId(Integer postId) {
         return commentRepository.findByPostId(postId);
     }
+
+    /**
+     * Получает страницу комментариев поста в порядке (created_at, id), начиная после курсора.
+     * Keyset-пагинация по индексу (post_id, created_at, id): стоимость запроса
+     * не зависит ни от глубины страницы, ни от общего числа комментариев поста.
+     *
+     * @param postId идентификатор поста
+     * @param cursor курсор из {@link CommentPage#getNextCursor()} или null для первой страницы
+     * @param size   размер страницы (не больше {@link #MAX_PAGE_SIZE})
+     * @return комментарии страницы и курсор следующей страницы
+     * @throws IllegalArgumentException если курсор имеет неверный формат
+     */
+    public CommentPage findPage(Integer postId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            String sql = "SELECT " + COMMENT_COLUMNS + " FROM comments WHERE post_id = ? "
+                    + "ORDER BY created_at, id LIMIT ?";
+            comments = jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToComment(rs), postId, limit + 1);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            LocalDateTime createdAt;
+            int id;
+            try {
+                createdAt = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                id = Integer.parseInt(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Неверный курсор комментариев: " + cursor, e);
+            }
+            String sql = "SELECT " + COMMENT_COLUMNS + " FROM comments WHERE post_id = ? "
+                    + "AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?";
+            comments = jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToComment(rs),
+                    postId, createdAt, id, limit + 1);
+        }
+
+        // Запрашиваем на один комментарий больше, чтобы узнать, есть ли следующая страница
+        if (comments.size() <= limit) {
+            return new CommentPage(comments, null);
+        }
+        List<Comment> page = comments.subList(0, limit);
+        return new CommentPage(page, cursorOf(page.get(limit - 1)));
+    }
+
+    /**
+     * Формирует курсор, указывающий на позицию сразу после комментария.
+     *
+     * @param comment последний комментарий страницы
+     * @return курсор вида "created_at_id"
+     */
+    static String cursorOf(Comment comment) {
+        return comment.getCreatedAt() + "_" + comment.getId();
+    }
+
+    /**
+     * Преобразует строку результата SQL-запроса в объект Comment.
+     *
+     * @param rs результат SQL-запроса
+     * @return объект Comment
+     * @throws SQLException если ошибка чтения из ResultSet
+     */
+    private Comment mapRowToComment(ResultSet rs) throws SQLException {
+        return new Comment(
+                rs.getInt("id"),
+                rs.getInt("post_id"),
+                rs.getString("author"),
+                rs.getString("content"),
+                rs.getObject("created_at", LocalDateTime.class));
+    }
 }
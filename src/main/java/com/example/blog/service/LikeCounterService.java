@@ -0,0 +1,214 @@
+package com.example.blog.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.example.blog.event.PostChangedEvent;
+
+/**
+ * Счётчик лайков с отложенной записью в базу.
+ *
+ * Лайки накапливаются в памяти (LongAdder на пост) и периодически
+ * сбрасываются в базу одним пакетным UPDATE likes = likes + ?. При чтении
+ * постов накопленная разница прибавляется к значению из базы.
+ *
+ * Лайк не берёт блокировок: счётчик поста достаётся из ConcurrentHashMap
+ * и увеличивается напрямую, так что лайки одного популярного поста
+ * распределяются по ячейкам LongAdder. При сбросе из счётчика вычитается
+ * ровно то значение, которое было записано, поэтому лайки, пришедшие во время
+ * сброса, не теряются.
+ *
+ * Обнулившиеся после сброса счётчики удаляются (в том числе счётчики
+ * несуществующих постов, UPDATE которых не затронул ни одной строки):
+ * счётчик помечается выведенным и убирается из карты. Лайк, увидевший пометку
+ * после увеличения, отменяет своё увеличение и повторяется на новом счётчике;
+ * лайк, не увидевший её, уже виден сбросу, который перечитывает выведенный
+ * счётчик и дописывает остаток при следующих сбросах.
+ *
+ * Страницы с лайками сбрасываются из кеша только после записи в базу:
+ * для затронутых постов публикуется {@link PostChangedEvent}. Между записью
+ * и вычитанием читатель может кратко увидеть записанную разницу дважды —
+ * событие сбрасывает и страницы, отрисованные в этот момент.
+ */
+@Service
+public class LikeCounterService {
+
+    private static final String FLUSH_SQL = "UPDATE posts SET likes = GREATEST(0, likes + ?) WHERE id = ?";
+
+    /**
+     * Накопленная разница лайков одного поста.
+     */
+    private static final class Counter {
+
+        private final int postId;
+        private final LongAdder adder = new LongAdder();
+        private volatile boolean retired;
+
+        private Counter(int postId) {
+            this.postId = postId;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Integer, Counter> pending = new ConcurrentHashMap<>();
+    /** Выведенные счётчики с остатком, который ещё нужно записать; доступ — под flushLock. */
+    private final List<Counter> retired = new ArrayList<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param jdbcTemplate   JdbcTemplate для записи накопленных лайков
+     * @param eventPublisher публикатор событий об изменении постов
+     */
+    public LikeCounterService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Учитывает лайк или его отмену.
+     *
+     * @param postId идентификатор поста
+     * @param like   true — добавить лайк, false — убрать
+     */
+    public void like(int postId, boolean like) {
+        long delta = like ? 1 : -1;
+        Counter counter = pending.get(postId);
+        while (true) {
+            if (counter == null) {
+                counter = pending.computeIfAbsent(postId, Counter::new);
+            }
+            counter.adder.add(delta);
+            if (!counter.retired) {
+                return;
+            }
+            // счётчик вывели между получением и увеличением: переносим лайк в новый
+            counter.adder.add(-delta);
+            pending.remove(postId, counter);
+            counter = null;
+        }
+    }
+
+    /**
+     * @param postId идентификатор поста
+     * @return ещё не записанная в базу разница лайков поста
+     */
+    public long pendingDelta(int postId) {
+        Counter counter = pending.get(postId);
+        return (counter != null) ? counter.adder.sum() : 0;
+    }
+
+    /**
+     * @return количество постов, для которых в памяти есть счётчик лайков
+     */
+    public int pendingPosts() {
+        return pending.size();
+    }
+
+    /**
+     * Прибавляет к значению из базы накопленную разницу.
+     *
+     * @param postId      идентификатор поста
+     * @param storedLikes количество лайков, прочитанное из базы
+     * @return актуальное количество лайков (не меньше нуля)
+     */
+    public int merge(int postId, int storedLikes) {
+        return (int) Math.max(0, storedLikes + pendingDelta(postId));
+    }
+
+    /**
+     * Записывает накопленные лайки в базу одним пакетным запросом.
+     * Если запись не удалась, разница остаётся в памяти до следующего сброса.
+     *
+     * @return количество постов, для которых были записаны лайки
+     */
+    @Scheduled(fixedDelayString = "${blog.likes.flush-interval-ms:1000}")
+    public int flush() {
+        // ReentrantLock, а не synchronized: на Java 21 монитор вокруг JDBC-вызова
+        // закрепляет виртуальный поток за потоком-носителем
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        List<Counter> counters = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        Map<Integer, Long> totals = new LinkedHashMap<>();
+        List<Counter> candidates = new ArrayList<>(pending.values());
+        candidates.addAll(retired);
+        for (Counter counter : candidates) {
+            long delta = counter.adder.sum();
+            if (delta != 0) {
+                counters.add(counter);
+                deltas.add(delta);
+                totals.merge(counter.postId, delta, Long::sum);
+            }
+        }
+
+        List<Integer> postIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        totals.forEach((postId, delta) -> {
+            if (delta != 0) {
+                postIds.add(postId);
+                batchArgs.add(new Object[] { delta, postId });
+            }
+        });
+        int[] updated = batchArgs.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+
+        for (int i = 0; i < counters.size(); i++) {
+            counters.get(i).adder.add(-deltas.get(i));
+        }
+        retireZeroed();
+
+        for (int i = 0; i < postIds.size(); i++) {
+            // 0 строк — поста нет, кеш которого нужно было бы сбросить
+            if (updated == null || i >= updated.length || updated[i] != 0) {
+                eventPublisher.publishEvent(PostChangedEvent.likes(postIds.get(i)));
+            }
+        }
+        return postIds.size();
+    }
+
+    /**
+     * Убирает из карты обнулившиеся счётчики. Остаток, появившийся у счётчика
+     * до пометки, запишут следующие сбросы.
+     */
+    private void retireZeroed() {
+        retired.removeIf(counter -> counter.adder.sum() == 0);
+        for (Counter counter : pending.values()) {
+            if (counter.adder.sum() != 0) {
+                continue;
+            }
+            counter.retired = true;
+            pending.remove(counter.postId, counter);
+            // лайки, не увидевшие пометку, видны этому чтению
+            if (counter.adder.sum() != 0) {
+                retired.add(counter);
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает накопленные лайки при остановке приложения.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.blog.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.example.blog.model.TagCount;
+
+/**
+ * Сервис, хранящий в памяти общее количество постов и количество постов по каждому тегу.
+ *
+ * Счётчики заполняются из базы при старте приложения, затем изменяются инкрементально
+ * из PostService (создание, удаление, смена тегов поста) и периодически сверяются
+ * с базой, чтобы исправить возможные расхождения (например, от изменений,
+ * сделанных в обход приложения или другим экземпляром приложения).
+ *
+ * Для облака тегов хранится снимок "тег -> количество постов", отсортированный
+ * по популярности. Он пересобирается из счётчиков в памяти только после их изменения,
+ * поэтому запрос облака тегов не обращается к базе и не зависит от размера post_tags.
+ */
+@Service
+public class PostCounterService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final Map<String, AtomicInteger> byTag = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    /**
+     * Номер изменения счётчиков тегов: снимок популярности действителен,
+     * пока номер не изменился.
+     */
+    private final AtomicLong tagsVersion = new AtomicLong();
+    private volatile TagCloud tagCloud;
+
+    private record TagCloud(long version, List<TagCount> byPopularity) {
+    }
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param jdbcTemplate JdbcTemplate для выполнения SQL-запросов
+     */
+    public PostCounterService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Заполняет счётчики при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    /**
+     * Сверяет счётчики с базой данных и заменяет их актуальными значениями.
+     * Изменения, произошедшие между подсчётом и заменой, будут учтены
+     * при следующей сверке.
+     */
+    @Scheduled(initialDelayString = "${blog.post-counts.reconcile-interval-ms:300000}",
+            fixedDelayString = "${blog.post-counts.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Integer.class);
+
+        Map<String, Integer> tagCounts = new HashMap<>();
+        String sql = """
+                SELECT t.name, COUNT(*) AS cnt FROM post_tags pt
+                JOIN tags t ON t.id = pt.tag_id
+                GROUP BY t.name
+                """;
+        jdbcTemplate.query(sql, rs -> {
+            tagCounts.put(rs.getString("name"), rs.getInt("cnt"));
+        });
+
+        total.set((count != null) ? count : 0);
+        byTag.keySet().retainAll(tagCounts.keySet());
+        tagCounts.forEach((name, cnt) -> counter(name).set(cnt));
+        tagsVersion.incrementAndGet();
+        initialized = true;
+    }
+
+    /**
+     * @return true, если счётчики уже заполнены из базы и им можно доверять
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * @return общее количество постов
+     */
+    public int getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Возвращает количество постов с указанным тегом.
+     *
+     * @param tag имя тега
+     * @return количество постов (0, если тег не используется)
+     */
+    public int getCountByTag(String tag) {
+        AtomicInteger counter = byTag.get(tag);
+        return (counter != null) ? counter.get() : 0;
+    }
+
+    /**
+     * Возвращает самые популярные теги. Используются только теги, у которых есть посты.
+     *
+     * @param prefix (опционально) начало имени тега, без учёта регистра
+     * @param limit  максимальное количество тегов
+     * @return теги по убыванию количества постов, при равенстве — по имени
+     */
+    public List<TagCount> getTopTags(String prefix, int limit) {
+        if (!initialized) {
+            reconcile();
+        }
+        List<TagCount> tags = tagCloud().byPopularity();
+        if (prefix == null || prefix.isBlank()) {
+            return tags.subList(0, Math.min(Math.max(limit, 0), tags.size()));
+        }
+        String lowerPrefix = prefix.trim().toLowerCase(Locale.ROOT);
+        return tags.stream()
+                .filter(tag -> tag.getName().toLowerCase(Locale.ROOT).startsWith(lowerPrefix))
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    /**
+     * Учитывает создание нового поста.
+     *
+     * @param tagNames теги нового поста
+     */
+    public void postCreated(Collection<String> tagNames) {
+        total.incrementAndGet();
+        tagNames.forEach(name -> counter(name).incrementAndGet());
+        tagsVersion.incrementAndGet();
+    }
+
+    /**
+     * Учитывает удаление поста.
+     *
+     * @param tagNames теги удалённого поста
+     */
+    public void postDeleted(Collection<String> tagNames) {
+        total.decrementAndGet();
+        tagNames.forEach(name -> counter(name).decrementAndGet());
+        tagsVersion.incrementAndGet();
+    }
+
+    /**
+     * Учитывает смену тегов существующего поста.
+     *
+     * @param oldTagNames теги поста до изменения
+     * @param newTagNames теги поста после изменения
+     */
+    public void tagsChanged(Collection<String> oldTagNames, Collection<String> newTagNames) {
+        for (String name : oldTagNames) {
+            if (!newTagNames.contains(name)) {
+                counter(name).decrementAndGet();
+            }
+        }
+        for (String name : newTagNames) {
+            if (!oldTagNames.contains(name)) {
+                counter(name).incrementAndGet();
+            }
+        }
+        tagsVersion.incrementAndGet();
+    }
+
+    /**
+     * Возвращает актуальный снимок популярности тегов, при необходимости пересобирая его.
+     * Версия читается до сборки: если счётчики изменятся во время сборки,
+     * следующий запрос соберёт снимок заново.
+     */
+    private TagCloud tagCloud() {
+        long version = tagsVersion.get();
+        TagCloud cloud = tagCloud;
+        if (cloud != null && cloud.version() == version) {
+            return cloud;
+        }
+        List<TagCount> byPopularity = byTag.entrySet().stream()
+                .map(e -> new TagCount(e.getKey(), e.getValue().get()))
+                .filter(tag -> tag.getCount() > 0)
+                .sorted(Comparator.comparingInt(TagCount::getCount).reversed().thenComparing(TagCount::getName))
+                .toList();
+        cloud = new TagCloud(version, byPopularity);
+        tagCloud = cloud;
+        return cloud;
+    }
+
+    private AtomicInteger counter(String tagName) {
+        return byTag.computeIfAbsent(tagName, name -> new AtomicInteger());
+    }
+}
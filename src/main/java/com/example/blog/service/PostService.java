@@ -1,19 +1,32 @@
 package com.example.blog.service;
 
+import com.example.blog.event.PostChangedEvent;
 import com.example.blog.model.Comment;
+import com.example.blog.model.CommentPage;
 import com.example.blog.model.Post;
+import com.example.blog.model.PostPreview;
 import com.example.blog.model.Tag;
 import com.example.blog.repository.PostRepository;
 import com.example.blog.repository.CommentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Сервис для работы с постами.
@@ -22,33 +35,61 @@ import java.util.Map;
  * а также управление связями с тегами и комментариями.
  */
 @Service
+@Timed("blog.service")
 public class PostService {
 
+    /**
+     * Колонки ленты: без полного текста поста, только фрагмент первого абзаца.
+     * SUBSTRING позволяет Postgres не распаковывать длинный текст целиком.
+     */
+    private static final String FEED_COLUMNS = "p.id, p.title, p.preview, p.image_url, p.likes, p.comment_count, "
+            + "SPLIT_PART(SUBSTRING(p.text, 1, " + PostPreview.EXCERPT_LENGTH + "), chr(10), 1) AS excerpt";
+
     private final PostRepository postRepository;
     private final TagService tagService;
     private final CommentService commentService;
     private final CommentRepository commentRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final PostCounterService postCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeCounterService likeCounterService;
+    private final SearchService searchService;
+    private final TagPostingIndex tagPostingIndex;
 
     /**
      * Конструктор для внедрения зависимостей.
      *
-     * @param postRepository    репозиторий для работы с постами
-     * @param tagService        сервис для работы с тегами
-     * @param commentService    сервис для работы с комментариями
-     * @param commentRepository репозиторий для работы с комментариями
-     * @param jdbcTemplate      JdbcTemplate для выполнения SQL-запросов
+     * @param postRepository     репозиторий для работы с постами
+     * @param tagService         сервис для работы с тегами
+     * @param commentService     сервис для работы с комментариями
+     * @param commentRepository  репозиторий для работы с комментариями
+     * @param jdbcTemplate       JdbcTemplate для выполнения SQL-запросов
+     * @param postCounterService счётчики количества постов (всего и по тегам)
+     * @param eventPublisher     публикатор событий об изменении постов
+     * @param likeCounterService счётчик лайков с отложенной записью
+     * @param searchService      полнотекстовый поиск (пересчёт поискового вектора)
+     * @param tagPostingIndex    индекс "тег -> посты" для фильтрации по нескольким тегам
      */
     public PostService(PostRepository postRepository,
             TagService tagService,
             CommentService commentService,
             CommentRepository commentRepository,
-            JdbcTemplate jdbcTemplate) {
+            JdbcTemplate jdbcTemplate,
+            PostCounterService postCounterService,
+            ApplicationEventPublisher eventPublisher,
+            LikeCounterService likeCounterService,
+            SearchService searchService,
+            TagPostingIndex tagPostingIndex) {
         this.postRepository = postRepository;
         this.tagService = tagService;
         this.commentService = commentService;
         this.commentRepository = commentRepository;
         this.jdbcTemplate = jdbcTemplate;
+        this.postCounterService = postCounterService;
+        this.eventPublisher = eventPublisher;
+        this.likeCounterService = likeCounterService;
+        this.searchService = searchService;
+        this.tagPostingIndex = tagPostingIndex;
     }
 
     /**
@@ -61,46 +102,99 @@ public class PostService {
     }
 
     /**
-     * Находит посты, заголовок которых содержит заданную строку (без учета
-     * регистра).
+     * Находит пост по его идентификатору. Количество лайков учитывает
+     * ещё не записанные в базу лайки.
      *
-     * @param titlePart часть заголовка для поиска
-     * @return список подходящих постов
+     * @param id идентификатор поста
+     * @return найденный пост или null, если пост не найден
      */
-    public List<Post> findByTitle(String titlePart) {
-        return postRepository.findByTitleContainingIgnoreCase(titlePart);
+    public Post findById(Integer id) {
+        Post post = postRepository.findById(id).orElse(null);
+        if (post != null) {
+            post.setLikes(likeCounterService.merge(id, post.getLikes()));
+        }
+        return post;
     }
 
     /**
-     * Находит пост по его идентификатору.
+     * Ставит или убирает лайк у поста. Лайк накапливается в памяти
+     * и записывается в базу пакетно, без чтения и пересохранения поста.
      *
-     * @param id идентификатор поста
-     * @return найденный пост или null, если пост не найден
+     * @param id   идентификатор поста
+     * @param like true — добавить лайк, false — убрать
      */
-    public Post findById(Integer id) {
-        return postRepository.findById(id).orElse(null);
+    public void like(Integer id, boolean like) {
+        likeCounterService.like(id, like);
     }
 
     /**
-     * Сохраняет пост и обновляет связи с тегами.
-     * Удаляет старые связи с тегами и добавляет новые.
+     * Сохраняет пост и обновляет связи с тегами в одной транзакции.
+     * Теги сохраняются одним запросом, связи с тегами сравниваются с текущими,
+     * и в post_tags добавляется и удаляется только то, что изменилось;
+     * затем пересчитывается поисковый вектор поста.
+     * После этого корректируются счётчики постов и публикуется событие для кеша страниц;
+     * индекс тегов обновляется после фиксации транзакции.
      *
      * @param post     пост для сохранения
      * @param tagNames список названий тегов
      * @return сохранённый пост с обновлённым состоянием
      */
+    @Transactional
     public Post save(Post post, List<String> tagNames) {
-        Post savedPost = postRepository.save(post);
+        boolean isNew = post.getId() == null;
+        List<Tag> oldTags = isNew ? Collections.emptyList() : tagService.findTagsByPostId(post.getId());
 
-        jdbcTemplate.update("DELETE FROM post_tags WHERE post_id = ?", savedPost.getId());
+        Post savedPost = postRepository.save(post);
+        Integer postId = savedPost.getId();
 
+        Set<String> names = new LinkedHashSet<>();
         for (String tagName : tagNames) {
-            Tag tag = tagService.save(new Tag(null, tagName.trim()));
+            String name = tagName.trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        List<Tag> newTags = tagService.saveAllByName(names);
+
+        Set<Integer> oldTagIds = new HashSet<>();
+        oldTags.forEach(tag -> oldTagIds.add(tag.getId()));
+        Set<Integer> newTagIds = new HashSet<>();
+        newTags.forEach(tag -> newTagIds.add(tag.getId()));
+
+        List<Integer> added = new ArrayList<>();
+        for (Integer tagId : newTagIds) {
+            if (!oldTagIds.contains(tagId)) {
+                added.add(tagId);
+            }
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Integer tagId : oldTagIds) {
+            if (!newTagIds.contains(tagId)) {
+                removed.add(tagId);
+            }
+        }
 
-            jdbcTemplate.update("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)",
-                    savedPost.getId(), tag.getId());
+        if (!removed.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM post_tags WHERE post_id = ? AND tag_id = ANY(?)",
+                    postId, removed.toArray(new Integer[0]));
+        }
+        if (!added.isEmpty()) {
+            List<Object[]> batchArgs = added.stream().map(tagId -> new Object[] { postId, tagId }).toList();
+            jdbcTemplate.batchUpdate("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)", batchArgs);
+        }
+        searchService.reindex(postId);
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            AfterCommit.run(() -> tagPostingIndex.postTagsChanged(postId, added, removed));
         }
 
+        Set<String> newTagNames = new LinkedHashSet<>(namesOf(newTags));
+        if (isNew) {
+            AfterCommit.run(() -> postCounterService.postCreated(newTagNames));
+        } else {
+            List<String> oldTagNames = namesOf(oldTags);
+            AfterCommit.run(() -> postCounterService.tagsChanged(oldTagNames, newTagNames));
+        }
+        eventPublisher.publishEvent(new PostChangedEvent(postId, true));
         return savedPost;
     }
 
@@ -109,17 +203,38 @@ public class PostService {
      *
      * @param post пост для сохранения
      */
+    @Transactional
     public void save(Post post) {
         save(post, Collections.emptyList());
     }
 
     /**
-     * Удаляет пост по идентификатору.
+     * Удаляет пост по идентификатору и корректирует счётчики постов.
+     *
+     * Теги поста читаются тем же запросом, что удаляет пост (DELETE ... RETURNING
+     * видит связи на момент удаления), поэтому параллельная правка тегов не
+     * сбивает счётчики. Счётчики и индекс тегов меняются после фиксации.
      *
      * @param id идентификатор поста для удаления
      */
+    @Transactional
     public void delete(Integer id) {
-        postRepository.deleteById(id);
+        String sql = "WITH deleted AS (DELETE FROM posts WHERE id = ? RETURNING id) " +
+                     "SELECT t.id, t.name FROM deleted d " +
+                     "LEFT JOIN post_tags pt ON pt.post_id = d.id " +
+                     "LEFT JOIN tags t ON t.id = pt.tag_id";
+        // пост без тегов даёт одну строку с NULL
+        List<Tag> rows = jdbcTemplate.query(sql,
+                (rs, rowNum) -> rs.getObject("id") != null ? new Tag(rs.getInt("id"), rs.getString("name")) : null,
+                id);
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Tag> tags = rows.stream().filter(Objects::nonNull).toList();
+        List<String> tagNames = namesOf(tags);
+        AfterCommit.run(() -> postCounterService.postDeleted(tagNames));
+        AfterCommit.run(() -> tagPostingIndex.postDeleted(id, tags.stream().map(Tag::getId).toList()));
+        eventPublisher.publishEvent(PostChangedEvent.deleted(id));
     }
 
     /**
@@ -142,6 +257,18 @@ public class PostService {
         return commentService.findByPostId(postId);
     }
 
+    /**
+     * Получает страницу комментариев поста (keyset-пагинация по created_at, id).
+     *
+     * @param postId идентификатор поста
+     * @param cursor курсор следующей страницы или null для первой страницы
+     * @param size   размер страницы
+     * @return комментарии страницы и курсор следующей страницы
+     */
+    public CommentPage findCommentPage(Integer postId, String cursor, int size) {
+        return commentService.findPage(postId, cursor, size);
+    }
+
     /**
      * Подсчитывает количество комментариев, связанных с указанным постом.
      *
@@ -153,20 +280,32 @@ public class PostService {
     }
 
     /**
-     * Формирует отображение "ID поста -> список тегов" для списка постов.
+     * Формирует отображение "ID поста -> количество комментариев" для страницы постов.
+     * Счётчики берутся из денормализованной колонки comment_count, прочитанной
+     * вместе со страницей, поэтому дополнительных запросов не выполняется.
      *
      * @param posts список постов
-     * @return карта постов и их тегов
+     * @return карта "ID поста -> количество комментариев"
      */
-    public Map<Integer, List<Tag>> getTagsForPosts(List<Post> posts) {
-        Map<Integer, List<Tag>> result = new HashMap<>();
-        for (Post post : posts) {
-            List<Tag> tags = tagService.findTagsByPostId(post.getId());
-            result.put(post.getId(), tags);
+    public Map<Integer, Integer> getCommentCountsForPosts(List<PostPreview> posts) {
+        Map<Integer, Integer> result = new HashMap<>();
+        for (PostPreview post : posts) {
+            result.put(post.getId(), post.getCommentCount());
         }
         return result;
     }
 
+    /**
+     * Формирует отображение "ID поста -> список тегов" для списка постов.
+     * Теги всей страницы загружаются одним запросом, независимо от её размера.
+     *
+     * @param posts список постов
+     * @return карта постов и их тегов
+     */
+    public Map<Integer, List<Tag>> getTagsForPosts(List<PostPreview> posts) {
+        return tagService.findTagsByPostIds(Arrays.asList(postIds(posts)));
+    }
+
     /**
      * Находит посты, связанные с указанным тегом.
      *
@@ -174,72 +313,148 @@ public class PostService {
      * @return список постов с данным тегом
      */
     public List<Post> findByTagName(String tagName) {
+        Integer tagId = tagService.findIdByName(tagName);
+        if (tagId == null) {
+            return new ArrayList<>();
+        }
         String sql = """
-                SELECT p.id, p.title, p.preview, p.image_url, p.text, p.likes
+                SELECT p.id, p.title, p.preview, p.image_url, p.text, p.likes, p.comment_count
                 FROM posts p
                 JOIN post_tags pt ON p.id = pt.post_id
-                JOIN tags t ON pt.tag_id = t.id
-                WHERE t.name = ?
+                WHERE pt.tag_id = ?
                 ORDER BY p.id DESC
                 """;
 
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Post post = new Post();
-            post.setId(rs.getInt("id"));
-            post.setTitle(rs.getString("title"));
-            post.setPreview(rs.getString("preview"));
-            post.setImageUrl(rs.getString("image_url"));
-            post.setText(rs.getString("text"));
-            post.setLikes(rs.getInt("likes"));
-            return post;
-        }, tagName);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToPost(rs), tagId);
     }
 
     /**
      * Получает посты с пагинацией и опциональной фильтрацией по тегу.
+     * Возвращает облегчённую проекцию для ленты без полного текста постов.
      *
      * @param page номер страницы (начинается с 0)
      * @param size количество постов на странице
      * @param tag  (опционально) имя тега для фильтрации
-     * @return список постов по заданным параметрам
+     * @return список превью постов по заданным параметрам
      */
-    public List<Post> findPaginated(int page, int size, String tag) {
+    public List<PostPreview> findPaginated(int page, int size, String tag) {
         int offset = page * size;
         if (tag != null && !tag.isBlank()) {
+            Integer tagId = tagService.findIdByName(tag);
+            if (tagId == null) {
+                return new ArrayList<>();
+            }
             String sql = """
-                        SELECT p.* FROM posts p
+                        SELECT %s FROM posts p
                         JOIN post_tags pt ON p.id = pt.post_id
-                        JOIN tags t ON t.id = pt.tag_id
-                        WHERE t.name = ?
+                        WHERE pt.tag_id = ?
                         ORDER BY p.id DESC
                         LIMIT ? OFFSET ?
-                    """;
+                    """.formatted(FEED_COLUMNS);
             return jdbcTemplate.query(sql,
-                    (rs, rowNum) -> mapRowToPost(rs),
-                    tag, size, offset);
+                    (rs, rowNum) -> mapRowToPreview(rs),
+                    tagId, size, offset);
         } else {
-            String sql = "SELECT * FROM posts ORDER BY id DESC LIMIT ? OFFSET ?";
+            String sql = "SELECT " + FEED_COLUMNS + " FROM posts p ORDER BY p.id DESC LIMIT ? OFFSET ?";
             return jdbcTemplate.query(sql,
-                    (rs, rowNum) -> mapRowToPost(rs),
+                    (rs, rowNum) -> mapRowToPreview(rs),
                     size, offset);
         }
     }
 
+    /**
+     * Получает страницу постов, идущих в ленте после курсора (keyset-пагинация).
+     * В отличие от OFFSET, стоимость запроса не зависит от глубины страницы:
+     * индекс по id позволяет сразу перейти к нужной позиции.
+     *
+     * @param beforeId курсор — id последнего поста предыдущей страницы (посты с меньшим id)
+     * @param size     максимальное количество постов
+     * @param tag      (опционально) имя тега для фильтрации
+     * @return посты в порядке убывания id
+     */
+    public List<PostPreview> findPageBefore(int beforeId, int size, String tag) {
+        if (tag != null && !tag.isBlank()) {
+            Integer tagId = tagService.findIdByName(tag);
+            if (tagId == null) {
+                return new ArrayList<>();
+            }
+            String sql = """
+                        SELECT %s FROM posts p
+                        JOIN post_tags pt ON p.id = pt.post_id
+                        WHERE pt.tag_id = ? AND p.id < ?
+                        ORDER BY p.id DESC
+                        LIMIT ?
+                    """.formatted(FEED_COLUMNS);
+            return jdbcTemplate.query(sql,
+                    (rs, rowNum) -> mapRowToPreview(rs),
+                    tagId, beforeId, size);
+        } else {
+            String sql = "SELECT " + FEED_COLUMNS + " FROM posts p WHERE p.id < ? ORDER BY p.id DESC LIMIT ?";
+            return jdbcTemplate.query(sql,
+                    (rs, rowNum) -> mapRowToPreview(rs),
+                    beforeId, size);
+        }
+    }
+
+    /**
+     * Получает страницу постов, идущих в ленте перед курсором (переход "назад").
+     * Посты выбираются по возрастанию id от курсора и разворачиваются,
+     * чтобы порядок совпадал с лентой.
+     *
+     * @param afterId курсор — id первого поста текущей страницы (посты с большим id)
+     * @param size    максимальное количество постов
+     * @param tag     (опционально) имя тега для фильтрации
+     * @return посты в порядке убывания id
+     */
+    public List<PostPreview> findPageAfter(int afterId, int size, String tag) {
+        List<PostPreview> posts;
+        if (tag != null && !tag.isBlank()) {
+            Integer tagId = tagService.findIdByName(tag);
+            if (tagId == null) {
+                return new ArrayList<>();
+            }
+            String sql = """
+                        SELECT %s FROM posts p
+                        JOIN post_tags pt ON p.id = pt.post_id
+                        WHERE pt.tag_id = ? AND p.id > ?
+                        ORDER BY p.id ASC
+                        LIMIT ?
+                    """.formatted(FEED_COLUMNS);
+            posts = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> mapRowToPreview(rs),
+                    tagId, afterId, size);
+        } else {
+            String sql = "SELECT " + FEED_COLUMNS + " FROM posts p WHERE p.id > ? ORDER BY p.id ASC LIMIT ?";
+            posts = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> mapRowToPreview(rs),
+                    afterId, size);
+        }
+        List<PostPreview> result = new ArrayList<>(posts);
+        Collections.reverse(result);
+        return result;
+    }
+
     /**
      * Подсчитывает общее количество постов с опциональной фильтрацией по тегу.
+     * Значение берётся из счётчиков в памяти; запрос к базе выполняется,
+     * только пока счётчики ещё не заполнены при старте приложения.
      *
      * @param tag (опционально) имя тега для фильтрации
      * @return количество постов
      */
     public int countPosts(String tag) {
+        if (postCounterService.isInitialized()) {
+            return (tag != null && !tag.isBlank())
+                    ? postCounterService.getCountByTag(tag)
+                    : postCounterService.getTotal();
+        }
         if (tag != null && !tag.isBlank()) {
-            String sql = """
-                        SELECT COUNT(*) FROM posts p
-                        JOIN post_tags pt ON p.id = pt.post_id
-                        JOIN tags t ON t.id = pt.tag_id
-                        WHERE t.name = ?
-                    """;
-            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, tag);
+            Integer tagId = tagService.findIdByName(tag);
+            if (tagId == null) {
+                return 0;
+            }
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_tags WHERE tag_id = ?",
+                    Integer.class, tagId);
             return (count != null) ? count : 0;
         } else {
             Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Integer.class);
@@ -247,6 +462,150 @@ public class PostService {
         }
     }
 
+    /**
+     * Получает страницу постов, отфильтрованных по нескольким тегам.
+     * Для одного тега используется обычный запрос по post_tags; для нескольких —
+     * пересечение (все теги) или объединение (любой тег) битовых карт
+     * {@link TagPostingIndex}, а из базы читаются только посты страницы.
+     *
+     * @param page     номер страницы (начинается с 0)
+     * @param size     количество постов на странице
+     * @param tags     имена тегов (пустой список — без фильтрации)
+     * @param matchAll true — посты со всеми тегами, false — с любым из тегов
+     * @return список превью постов
+     */
+    public List<PostPreview> findPaginated(int page, int size, List<String> tags, boolean matchAll) {
+        if (tags.size() <= 1) {
+            return findPaginated(page, size, singleTag(tags));
+        }
+        return findByIds(TagPostingIndex.pageIds(matchTags(tags, matchAll), page * size, size));
+    }
+
+    /**
+     * Курсорный вариант {@link #findPaginated(int, int, List, boolean)}: посты с id меньше курсора.
+     *
+     * @param beforeId курсор — id последнего поста предыдущей страницы
+     * @param size     максимальное количество постов
+     * @param tags     имена тегов (пустой список — без фильтрации)
+     * @param matchAll true — посты со всеми тегами, false — с любым из тегов
+     * @return посты в порядке убывания id
+     */
+    public List<PostPreview> findPageBefore(int beforeId, int size, List<String> tags, boolean matchAll) {
+        if (tags.size() <= 1) {
+            return findPageBefore(beforeId, size, singleTag(tags));
+        }
+        return findByIds(TagPostingIndex.pageIdsBefore(matchTags(tags, matchAll), beforeId, size));
+    }
+
+    /**
+     * Курсорный вариант {@link #findPaginated(int, int, List, boolean)}: посты с id больше курсора.
+     *
+     * @param afterId  курсор — id первого поста текущей страницы
+     * @param size     максимальное количество постов
+     * @param tags     имена тегов (пустой список — без фильтрации)
+     * @param matchAll true — посты со всеми тегами, false — с любым из тегов
+     * @return посты в порядке убывания id
+     */
+    public List<PostPreview> findPageAfter(int afterId, int size, List<String> tags, boolean matchAll) {
+        if (tags.size() <= 1) {
+            return findPageAfter(afterId, size, singleTag(tags));
+        }
+        return findByIds(TagPostingIndex.pageIdsAfter(matchTags(tags, matchAll), afterId, size));
+    }
+
+    /**
+     * Подсчитывает количество постов, отфильтрованных по нескольким тегам.
+     * Для нескольких тегов — мощность пересечения или объединения битовых карт.
+     *
+     * @param tags     имена тегов (пустой список — без фильтрации)
+     * @param matchAll true — посты со всеми тегами, false — с любым из тегов
+     * @return количество постов
+     */
+    public int countPosts(List<String> tags, boolean matchAll) {
+        if (tags.size() <= 1) {
+            return countPosts(singleTag(tags));
+        }
+        return matchTags(tags, matchAll).getCardinality();
+    }
+
+    /**
+     * Находит посты, отмеченные всеми или любым из тегов, по индексу тегов.
+     * Неизвестный тег даёт пустой результат при "все теги" и пропускается при "любой тег".
+     *
+     * @param tags     имена тегов
+     * @param matchAll true — пересечение, false — объединение
+     * @return id подходящих постов
+     */
+    private RoaringBitmap matchTags(List<String> tags, boolean matchAll) {
+        List<Integer> tagIds = new ArrayList<>();
+        for (String tag : tags) {
+            Integer tagId = tagService.findIdByName(tag);
+            if (tagId != null) {
+                tagIds.add(tagId);
+            } else if (matchAll) {
+                return new RoaringBitmap();
+            }
+        }
+        return tagPostingIndex.match(tagIds, matchAll);
+    }
+
+    /**
+     * Загружает посты страницы по их id.
+     *
+     * @param ids id постов страницы
+     * @return посты в порядке убывания id
+     */
+    private List<PostPreview> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT " + FEED_COLUMNS + " FROM posts p WHERE p.id = ANY(?) ORDER BY p.id DESC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToPreview(rs), (Object) ids.toArray(new Integer[0]));
+    }
+
+    private static String singleTag(List<String> tags) {
+        return tags.isEmpty() ? null : tags.get(0);
+    }
+
+    /**
+     * Извлекает имена тегов.
+     *
+     * @param tags список тегов
+     * @return список имён тегов
+     */
+    private List<String> namesOf(List<Tag> tags) {
+        return tags.stream().map(Tag::getName).toList();
+    }
+
+    /**
+     * Собирает идентификаторы постов в массив для параметра {@code = ANY(?)}.
+     *
+     * @param posts список постов
+     * @return массив идентификаторов
+     */
+    private Integer[] postIds(List<PostPreview> posts) {
+        return posts.stream().map(PostPreview::getId).toArray(Integer[]::new);
+    }
+
+    /**
+     * Преобразует строку результата запроса ленты в объект PostPreview.
+     *
+     * @param rs результат SQL-запроса
+     * @return объект PostPreview
+     * @throws SQLException если ошибка чтения из ResultSet
+     */
+    private PostPreview mapRowToPreview(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        return new PostPreview(
+                id,
+                rs.getString("title"),
+                rs.getString("preview"),
+                rs.getString("image_url"),
+                likeCounterService.merge(id, rs.getInt("likes")),
+                rs.getInt("comment_count"),
+                rs.getString("excerpt"));
+    }
+
     /**
      * Преобразует строку результата SQL-запроса в объект Post.
      *
@@ -254,13 +613,15 @@ public class PostService {
      * @return объект Post
      * @throws SQLException если ошибка чтения из ResultSet
      */
-    private Post mapRowToPost(ResultSet rs) throws SQLException {
+    Post mapRowToPost(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
         return new Post(
-                rs.getInt("id"),
+                id,
                 rs.getString("title"),
                 rs.getString("preview"),
                 rs.getString("image_url"),
                 rs.getString("text"),
-                rs.getInt("likes"));
+                likeCounterService.merge(id, rs.getInt("likes")),
+                rs.getInt("comment_count"));
     }
 }
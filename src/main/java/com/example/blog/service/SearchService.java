@@ -0,0 +1,190 @@
+package com.example.blog.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import com.example.blog.model.SearchHit;
+
+/**
+ * Полнотекстовый поиск по постам.
+ *
+ * Поиск идёт по колонке posts.search_vector (tsvector с GIN-индексом), в которую
+ * с разными весами собраны заголовок (A), теги (B), превью (C) и текст (D).
+ * Теги лежат в другой таблице, поэтому колонка не генерируемая: её пересчитывает
+ * PostService при сохранении поста, в той же транзакции.
+ *
+ * Общее количество совпадений не считается: страница запрашивается с одной
+ * лишней строкой, чтобы узнать, есть ли следующая, — так время ответа не растёт
+ * вместе с числом найденных постов.
+ *
+ * Отдельный режим — поиск по части заголовка с опечатками через триграммный
+ * индекс pg_trgm (подстрока и похожесть слов), с ограничением числа результатов.
+ */
+@Service
+public class SearchService {
+
+    /**
+     * Конфигурация текстового поиска: русская морфология, латиница — английская.
+     */
+    static final String TS_CONFIG = "russian";
+
+    /**
+     * Максимальное количество результатов поиска по заголовку.
+     */
+    public static final int MAX_TITLE_RESULTS = 50;
+
+    /**
+     * Максимальная длина текста, по которой строится фрагмент с подсветкой.
+     */
+    static final int SNIPPET_SOURCE_LENGTH = 5000;
+
+    // Маркеры подсветки, которые не встречаются в тексте: заменяются на <mark> после экранирования
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+
+    private static final String VECTOR_SQL = """
+            setweight(to_tsvector('%1$s', COALESCE(p.title, '')), 'A')
+            || setweight(to_tsvector('%1$s', COALESCE((
+                SELECT string_agg(t.name, ' ') FROM post_tags pt JOIN tags t ON t.id = pt.tag_id
+                WHERE pt.post_id = p.id), '')), 'B')
+            || setweight(to_tsvector('%1$s', COALESCE(p.preview, '')), 'C')
+            || setweight(to_tsvector('%1$s', COALESCE(p.text, '')), 'D')
+            """.formatted(TS_CONFIG);
+
+    private static final String SEARCH_SQL = """
+            SELECT p.id, p.title, p.preview, p.image_url, p.likes, p.comment_count, m.rank,
+                   ts_headline('%1$s', COALESCE(p.preview, '') || ' ' || SUBSTRING(p.text, 1, %2$d), m.q,
+                       'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', MaxFragments=2, MaxWords=30, MinWords=10')
+                       AS snippet
+            FROM (
+                SELECT p.id, q, ts_rank_cd(p.search_vector, q) AS rank
+                FROM posts p, websearch_to_tsquery('%1$s', ?) q
+                WHERE p.search_vector @@ q
+                ORDER BY rank DESC, p.id DESC
+                LIMIT ? OFFSET ?
+            ) m
+            JOIN posts p ON p.id = m.id
+            ORDER BY m.rank DESC, p.id DESC
+            """.formatted(TS_CONFIG, SNIPPET_SOURCE_LENGTH);
+
+    /**
+     * Поиск по заголовку через триграммный GIN-индекс (pg_trgm): подстрока (ILIKE)
+     * или похожее слово с опечаткой (оператор <% — word_similarity выше порога).
+     */
+    private static final String TITLE_SQL = """
+            SELECT p.id, p.title, p.preview, p.image_url, p.likes, p.comment_count,
+                   word_similarity(?, p.title) AS rank, p.preview AS snippet
+            FROM posts p
+            WHERE p.title ILIKE ? ESCAPE '\\' OR ? <% p.title
+            ORDER BY rank DESC, p.id DESC
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeCounterService likeCounterService;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param jdbcTemplate       JdbcTemplate для выполнения SQL-запросов
+     * @param likeCounterService счётчик лайков с отложенной записью
+     */
+    public SearchService(JdbcTemplate jdbcTemplate, LikeCounterService likeCounterService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.likeCounterService = likeCounterService;
+    }
+
+    /**
+     * Строит поисковый вектор для постов, у которых его ещё нет
+     * (например, созданных до появления поиска).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexMissing() {
+        jdbcTemplate.update("UPDATE posts p SET search_vector = " + VECTOR_SQL + " WHERE p.search_vector IS NULL");
+    }
+
+    /**
+     * Пересчитывает поисковый вектор поста. Вызывается после сохранения поста и его тегов.
+     *
+     * @param postId идентификатор поста
+     */
+    public void reindex(Integer postId) {
+        jdbcTemplate.update("UPDATE posts p SET search_vector = " + VECTOR_SQL + " WHERE p.id = ?", postId);
+    }
+
+    /**
+     * Ищет посты по запросу в синтаксисе веб-поиска: слова, "фразы в кавычках",
+     * OR и -исключение. Результаты упорядочены по релевантности.
+     *
+     * @param query  поисковый запрос
+     * @param limit  максимальное количество результатов
+     * @param offset сколько результатов пропустить с начала
+     * @return найденные посты; пустой список для пустого запроса
+     */
+    public List<SearchHit> search(String query, int limit, int offset) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SEARCH_SQL,
+                (rs, rowNum) -> mapRowToHit(rs),
+                query.trim(), limit, offset);
+    }
+
+    /**
+     * Ищет посты по части заголовка с учётом опечаток. Результаты упорядочены
+     * по похожести заголовка на запрос.
+     *
+     * @param query часть заголовка
+     * @param limit максимальное количество результатов (не больше {@link #MAX_TITLE_RESULTS})
+     * @return найденные посты; пустой список для пустого запроса
+     */
+    public List<SearchHit> searchTitles(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String term = query.trim();
+        return jdbcTemplate.query(TITLE_SQL,
+                (rs, rowNum) -> mapRowToHit(rs),
+                term, "%" + escapeLike(term) + "%", term, Math.min(limit, MAX_TITLE_RESULTS));
+    }
+
+    /**
+     * Экранирует спецсимволы шаблона LIKE, чтобы они искались как обычные символы.
+     */
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Экранирует фрагмент и заменяет маркеры совпадений на &lt;mark&gt;.
+     *
+     * @param headline результат ts_headline
+     * @return безопасный HTML
+     */
+    public static String highlight(String headline) {
+        if (headline == null) {
+            return "";
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+
+    private SearchHit mapRowToHit(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        return new SearchHit(
+                id,
+                rs.getString("title"),
+                rs.getString("preview"),
+                rs.getString("image_url"),
+                likeCounterService.merge(id, rs.getInt("likes")),
+                rs.getInt("comment_count"),
+                rs.getDouble("rank"),
+                highlight(rs.getString("snippet")));
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.blog.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Индекс "тег -> множество id постов" в памяти на сжатых битовых картах (RoaringBitmap).
+ *
+ * Фильтрация ленты по нескольким тегам (все теги / любой из тегов) выполняется
+ * пересечением или объединением карт: точное количество постов — мощность
+ * результата, а id постов страницы берутся из карты по порядковому номеру,
+ * так что из базы читаются только строки одной страницы.
+ *
+ * Индекс строится из post_tags при старте (или при первом обращении),
+ * обновляется из PostService после фиксации изменений тегов поста
+ * и периодически перестраивается для исправления возможных расхождений.
+ * Изменения, пришедшие во время перестроения, записываются в журнал
+ * и применяются к новому индексу повторно.
+ */
+@Service
+public class TagPostingIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // ReentrantLock, а не synchronized: монитор вокруг JDBC-вызова на Java 21
+    // закрепляет виртуальный поток за потоком-носителем
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Map<Integer, RoaringBitmap> postsByTag = new HashMap<>();
+    private volatile boolean loaded;
+    private List<Runnable> journal;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param jdbcTemplate JdbcTemplate для загрузки связей постов с тегами
+     */
+    public TagPostingIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Строит индекс при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Перестраивает индекс по таблице post_tags. Одновременно выполняется
+     * не больше одного перестроения.
+     */
+    @Scheduled(initialDelayString = "${blog.tag-index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${blog.tag-index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildIndex() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Integer, RoaringBitmap> fresh = new HashMap<>();
+        jdbcTemplate.query("SELECT tag_id, post_id FROM post_tags", rs -> {
+            fresh.computeIfAbsent(rs.getInt("tag_id"), id -> new RoaringBitmap()).add(rs.getInt("post_id"));
+        });
+        fresh.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            postsByTag = fresh;
+            journal.forEach(Runnable::run);
+            journal = null;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Учитывает изменение тегов поста.
+     *
+     * @param postId      идентификатор поста
+     * @param addedTags   id добавленных тегов
+     * @param removedTags id удалённых тегов
+     */
+    public void postTagsChanged(int postId, Collection<Integer> addedTags, Collection<Integer> removedTags) {
+        List<Integer> added = List.copyOf(addedTags);
+        List<Integer> removed = List.copyOf(removedTags);
+        apply(() -> {
+            added.forEach(tagId -> postsByTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(postId));
+            removed.forEach(tagId -> {
+                RoaringBitmap posts = postsByTag.get(tagId);
+                if (posts != null) {
+                    posts.remove(postId);
+                }
+            });
+        });
+    }
+
+    /**
+     * Учитывает удаление поста.
+     *
+     * @param postId идентификатор поста
+     * @param tagIds id тегов удалённого поста
+     */
+    public void postDeleted(int postId, Collection<Integer> tagIds) {
+        postTagsChanged(postId, Collections.emptyList(), tagIds);
+    }
+
+    /**
+     * Возвращает посты, отмеченные всеми или любым из указанных тегов.
+     *
+     * @param tagIds   id тегов
+     * @param matchAll true — пересечение (все теги), false — объединение (любой тег)
+     * @return новая битовая карта id постов (вызывающий может её изменять)
+     */
+    public RoaringBitmap match(Collection<Integer> tagIds, boolean matchAll) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Integer tagId : tagIds) {
+                RoaringBitmap posts = postsByTag.getOrDefault(tagId, new RoaringBitmap());
+                if (result == null) {
+                    result = posts.clone();
+                } else if (matchAll) {
+                    result.and(posts);
+                } else {
+                    result.or(posts);
+                }
+            }
+            return (result != null) ? result : new RoaringBitmap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает id постов страницы в порядке ленты (по убыванию id).
+     *
+     * @param posts  множество id постов
+     * @param offset сколько постов пропустить от начала ленты
+     * @param size   размер страницы
+     * @return id постов страницы
+     */
+    public static List<Integer> pageIds(RoaringBitmap posts, int offset, int size) {
+        int total = posts.getCardinality();
+        List<Integer> ids = new ArrayList<>(size);
+        for (int i = total - 1 - offset; i >= 0 && ids.size() < size; i--) {
+            ids.add(posts.select(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Возвращает id постов с id меньше курсора в порядке ленты (по убыванию id).
+     *
+     * @param posts    множество id постов
+     * @param beforeId курсор
+     * @param size     размер страницы
+     * @return id постов страницы
+     */
+    public static List<Integer> pageIdsBefore(RoaringBitmap posts, int beforeId, int size) {
+        // количество постов с id < beforeId
+        int lower = (beforeId > 0) ? (int) posts.rank(beforeId - 1) : 0;
+        List<Integer> ids = new ArrayList<>(size);
+        for (int i = lower - 1; i >= 0 && ids.size() < size; i--) {
+            ids.add(posts.select(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Возвращает ближайшие к курсору id постов с id больше курсора в порядке ленты (по убыванию id).
+     *
+     * @param posts   множество id постов
+     * @param afterId курсор
+     * @param size    размер страницы
+     * @return id постов страницы
+     */
+    public static List<Integer> pageIdsAfter(RoaringBitmap posts, int afterId, int size) {
+        // количество постов с id <= afterId
+        int upTo = (int) posts.rank(afterId);
+        int end = Math.min(posts.getCardinality(), upTo + size);
+        List<Integer> ids = new ArrayList<>(end - upTo);
+        for (int i = end - 1; i >= upTo; i--) {
+            ids.add(posts.select(i));
+        }
+        return ids;
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuildIndex();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+}
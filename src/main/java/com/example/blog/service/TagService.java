@@ -1,6 +1,16 @@
 package com.example.blog.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import com.example.blog.model.Tag;
@@ -9,13 +19,23 @@ import com.example.blog.repository.TagRepository;
 /**
  * Сервис для работы с тегами.
  * Отвечает за получение тегов, связанных с постами, и сохранение тегов.
+ *
+ * Держит в памяти словарь тегов (имя -> тег и id -> тег): тегов мало и они
+ * почти не меняются. Словарь загружается при старте и пополняется после фиксации
+ * транзакции, создавшей теги; на каждый тег приходится один общий объект Tag, который используется
+ * во всех страницах ленты. Если тега нет в словаре (например, его создал другой
+ * экземпляр приложения), он дочитывается из базы.
  */
 @Service
+@Timed("blog.service")
 public class TagService {
 
     private final TagRepository tagRepository;
     private final JdbcTemplate jdbcTemplate;
 
+    private final Map<String, Tag> tagsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, Tag> tagsById = new ConcurrentHashMap<>();
+
     /**
      * Конструктор для внедрения зависимостей.
      *
@@ -27,6 +47,33 @@ public class TagService {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    /**
+     * Загружает словарь тегов при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDictionary() {
+        jdbcTemplate.query("SELECT id, name FROM tags", rs -> {
+            register(rs.getInt("id"), rs.getString("name"));
+        });
+    }
+
+    /**
+     * Возвращает идентификатор тега по имени.
+     *
+     * @param name имя тега
+     * @return идентификатор или null, если такого тега нет
+     */
+    public Integer findIdByName(String name) {
+        Tag tag = tagsByName.get(name);
+        if (tag == null) {
+            List<Tag> found = jdbcTemplate.query("SELECT id, name FROM tags WHERE name = ?",
+                    (rs, rowNum) -> register(rs.getInt("id"), rs.getString("name")),
+                    name);
+            tag = found.isEmpty() ? null : found.get(0);
+        }
+        return (tag != null) ? tag.getId() : null;
+    }
+
     /**
      * Получает список тегов, связанных с конкретным постом.
      *
@@ -42,6 +89,55 @@ public class TagService {
                 postId);
     }
 
+    /**
+     * Получает теги сразу для нескольких постов одним запросом.
+     * Для каждого переданного поста в результате есть запись (возможно, с пустым списком).
+     *
+     * @param postIds идентификаторы постов
+     * @return карта "ID поста -> список тегов"
+     */
+    public Map<Integer, List<Tag>> findTagsByPostIds(Collection<Integer> postIds) {
+        Map<Integer, List<Tag>> result = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return result;
+        }
+        for (Integer postId : postIds) {
+            result.put(postId, new ArrayList<>());
+        }
+
+        // Имена тегов берутся из словаря: соединение с tags не нужно
+        Map<Integer, List<Integer>> tagIdsByPost = new HashMap<>();
+        Set<Integer> unknownTagIds = new LinkedHashSet<>();
+        jdbcTemplate.query("SELECT post_id, tag_id FROM post_tags WHERE post_id = ANY(?)",
+                rs -> {
+                    int tagId = rs.getInt("tag_id");
+                    tagIdsByPost.computeIfAbsent(rs.getInt("post_id"), id -> new ArrayList<>()).add(tagId);
+                    if (!tagsById.containsKey(tagId)) {
+                        unknownTagIds.add(tagId);
+                    }
+                },
+                (Object) postIds.toArray(new Integer[0]));
+
+        if (!unknownTagIds.isEmpty()) {
+            jdbcTemplate.query("SELECT id, name FROM tags WHERE id = ANY(?)",
+                    rs -> {
+                        register(rs.getInt("id"), rs.getString("name"));
+                    },
+                    (Object) unknownTagIds.toArray(new Integer[0]));
+        }
+
+        tagIdsByPost.forEach((postId, tagIds) -> {
+            List<Tag> tags = result.get(postId);
+            for (Integer tagId : tagIds) {
+                Tag tag = tagsById.get(tagId);
+                if (tag != null) {
+                    tags.add(tag);
+                }
+            }
+        });
+        return result;
+    }
+
     /**
      * Сохраняет тег, если он еще не существует.
      * Если тег с таким именем уже есть, возвращает существующий.
@@ -50,10 +146,72 @@ public class TagService {
      * @return сохраненный или уже существующий тег
      */
     public Tag save(Tag tag) {
+        Tag known = tagsByName.get(tag.getName());
+        if (known != null) {
+            return known;
+        }
         Tag existing = tagRepository.findByName(tag.getName());
         if (existing != null) {
-            return existing;
+            return register(existing.getId(), existing.getName());
+        }
+        Tag saved = tagRepository.save(tag);
+        AfterCommit.run(() -> register(saved.getId(), saved.getName()));
+        return saved;
+    }
+
+    /**
+     * Сохраняет теги с указанными именами и возвращает их вместе с id.
+     *
+     * Новые теги вставляются одним запросом с ON CONFLICT DO NOTHING: существующие
+     * строки не блокируются и не переписываются, поэтому параллельные сохранения
+     * постов с одинаковыми тегами не ждут друг друга до конца транзакции.
+     * Имена вставляются в отсортированном порядке — при одновременной вставке
+     * одних и тех же новых имён ожидание на уникальном индексе не переходит
+     * во взаимную блокировку. Id уже существовавших тегов дочитываются вторым запросом.
+     *
+     * @param names имена тегов (без повторов)
+     * @return теги с указанными именами (порядок не гарантируется)
+     */
+    public List<Tag> saveAllByName(Collection<String> names) {
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String insertSql = """
+                INSERT INTO tags (name)
+                SELECT name FROM unnest(?::text[]) AS name ORDER BY name
+                ON CONFLICT (name) DO NOTHING
+                RETURNING id, name
+                """;
+        List<Tag> tags = new ArrayList<>(jdbcTemplate.query(insertSql,
+                (rs, rowNum) -> new Tag(rs.getInt("id"), rs.getString("name")),
+                (Object) names.toArray(new String[0])));
+        if (tags.size() < names.size()) {
+            Set<String> existing = new LinkedHashSet<>(names);
+            tags.forEach(tag -> existing.remove(tag.getName()));
+            tags.addAll(jdbcTemplate.query("SELECT id, name FROM tags WHERE name = ANY(?)",
+                    (rs, rowNum) -> new Tag(rs.getInt("id"), rs.getString("name")),
+                    (Object) existing.toArray(new String[0])));
+        }
+        // новые теги попадают в словарь только после фиксации: при откате их id не существует
+        List<Tag> saved = List.copyOf(tags);
+        AfterCommit.run(() -> saved.forEach(tag -> register(tag.getId(), tag.getName())));
+        return tags;
+    }
+
+    /**
+     * Добавляет тег в словарь. Если имени в словаре соответствует другой id,
+     * запись заменяется: значение из базы считается верным.
+     *
+     * @param id   идентификатор тега
+     * @param name имя тега
+     * @return общий экземпляр тега из словаря
+     */
+    private Tag register(int id, String name) {
+        Tag tag = tagsById.computeIfAbsent(id, key -> new Tag(key, name));
+        Tag previous = tagsByName.put(tag.getName(), tag);
+        if (previous != null && !previous.getId().equals(tag.getId())) {
+            tagsById.remove(previous.getId(), previous);
         }
-        return tagRepository.save(tag);
+        return tag;
     }
 }
@@ -0,0 +1,126 @@
+package com.example.blog.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Хранилище изображений в файловой системе.
+ *
+ * Поток загрузки пишется во временный файл через буфер фиксированного размера
+ * с одновременным подсчётом SHA-256, поэтому расход памяти не зависит от размера файла.
+ * Затем файл переносится в &lt;корень&gt;/ab/cd/&lt;хеш&gt;.&lt;расширение&gt;, где ab и cd —
+ * первые символы хеша: два уровня по 256 подкаталогов держат каталоги небольшими
+ * даже при сотнях тысяч файлов. Если файл с таким хешем уже есть, временный файл удаляется.
+ *
+ * Формат определяется по сигнатуре содержимого (JPEG, PNG, GIF, WebP); имя файла
+ * у клиента не используется. Остальные файлы не сохраняются: с расширением клиента
+ * (html, svg, js) они раздавались бы с того же origin, что и блог.
+ */
+@Component
+public class FileSystemImageStorage implements ImageStorage {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmp;
+
+    /**
+     * @param root корневой каталог изображений (blog.uploads.dir)
+     */
+    public FileSystemImageStorage(@Value(UPLOADS_DIR_PROPERTY) String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+    }
+
+    @Override
+    public StoredImage store(InputStream content, String originalFilename) throws IOException {
+        Files.createDirectories(tmp);
+        Path upload = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (InputStream in = new DigestInputStream(content, digest);
+                    OutputStream out = Files.newOutputStream(upload)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            String extension = extension(upload);
+            if (extension == null) {
+                throw new IllegalArgumentException("Файл не является изображением JPEG, PNG, GIF или WebP");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relative = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+
+            Path target = root.resolve(relative);
+            boolean duplicate = Files.exists(target);
+            if (!duplicate) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // тот же файл одновременно сохранил другой запрос
+                    duplicate = true;
+                }
+            }
+            return new StoredImage(hash, URL_PREFIX + relative, size, duplicate);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    @Override
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Определяет расширение по сигнатуре файла.
+     *
+     * @return jpg, png, gif, webp или null, если формат не поддерживается
+     */
+    static String extension(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F') {
+            return "gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.blog.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кеш содержимого самых запрашиваемых изображений в памяти.
+ *
+ * Ограничен суммарным размером файлов (Caffeine с весом записи в байтах,
+ * вытеснение — W-TinyLFU); файлы больше
+ * blog.uploads.hot-cache.max-file-bytes не кешируются (их выгоднее отдавать
+ * с диска через sendfile). Ключ — путь внутри /uploads/: файлы хранилища
+ * адресуются хешем содержимого и не перезаписываются, поэтому попадание
+ * не требует обращения к файловой системе. Чтение не берёт общую блокировку:
+ * параллельные запросы изображений обслуживаются одновременно, а вытеснение
+ * выполняется асинхронно, поэтому объём кеша может ненадолго превысить лимит.
+ */
+@Component
+public class HotImageCache {
+
+    /**
+     * Изображение в памяти.
+     */
+    public static class CachedImage extends ByteArrayResource {
+
+        private final String path;
+        private final String filename;
+        private final long lastModified;
+
+        CachedImage(byte[] content, String path, String filename, long lastModified) {
+            super(content, path);
+            this.path = path;
+            this.filename = filename;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return путь файла внутри /uploads/
+         */
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Снимок статистики кеша.
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long bytes, long maxBytes) {
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final Cache<String, CachedImage> entries;
+
+    /**
+     * @param maxBytes     суммарный размер изображений в кеше
+     * @param maxFileBytes максимальный размер кешируемого файла
+     */
+    public HotImageCache(@Value("${blog.uploads.hot-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${blog.uploads.hot-cache.max-file-bytes:524288}") long maxFileBytes) {
+        this(maxBytes, maxFileBytes, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor пул для вытеснения и прочего обслуживания кеша
+     */
+    HotImageCache(long maxBytes, long maxFileBytes, Executor executor) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String path, CachedImage image) -> image.getByteArray().length)
+                .executor(executor)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает изображение из кеша.
+     *
+     * @param path путь файла внутри /uploads/
+     * @return изображение или null, если его нет в кеше
+     */
+    public CachedImage get(String path) {
+        return entries.getIfPresent(path);
+    }
+
+    /**
+     * Загружает файл в кеш, если он достаточно мал.
+     *
+     * @param path     путь файла внутри /uploads/
+     * @param resource найденный файл
+     * @return изображение в памяти или исходный ресурс, если файл не кешируется
+     * @throws IOException если файл не удалось прочитать
+     */
+    public Resource load(String path, Resource resource) throws IOException {
+        if (!resource.isFile() || resource.contentLength() > maxFileBytes) {
+            return resource;
+        }
+        Path file = resource.getFile().toPath();
+        CachedImage image;
+        try {
+            image = new CachedImage(Files.readAllBytes(file), path, resource.getFilename(),
+                    Files.getLastModifiedTime(file).toMillis());
+        } catch (NoSuchFileException e) {
+            return resource;
+        }
+        entries.put(path, image);
+        return image;
+    }
+
+    /**
+     * Полностью очищает кеш.
+     */
+    public void clear() {
+        entries.invalidateAll();
+        entries.cleanUp();
+    }
+
+    /**
+     * @return снимок статистики попаданий/промахов
+     */
+    public Stats getStats() {
+        entries.cleanUp();
+        CacheStats stats = entries.stats();
+        long bytes = entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                (int) entries.estimatedSize(), bytes, maxBytes);
+    }
+}
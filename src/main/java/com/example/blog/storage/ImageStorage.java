@@ -0,0 +1,40 @@
+package com.example.blog.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Хранилище загруженных изображений.
+ *
+ * Файлы адресуются хешем содержимого: одинаковые изображения хранятся один раз,
+ * а URL файла не меняется, пока не изменится его содержимое.
+ */
+public interface ImageStorage {
+
+    /**
+     * Префикс URL, по которому раздаются изображения.
+     */
+    String URL_PREFIX = "/uploads/";
+
+    /**
+     * Каталог изображений: свойство blog.uploads.dir со значением по умолчанию.
+     */
+    String UPLOADS_DIR_PROPERTY = "${blog.uploads.dir:C:/myapp/uploads}";
+
+    /**
+     * Сохраняет изображение, читая поток один раз.
+     *
+     * @param content          содержимое файла
+     * @param originalFilename имя файла у клиента
+     * @return сохранённое изображение
+     * @throws IOException              если файл не удалось записать
+     * @throws IllegalArgumentException если содержимое не является изображением поддерживаемого формата
+     */
+    StoredImage store(InputStream content, String originalFilename) throws IOException;
+
+    /**
+     * @return корневой каталог изображений
+     */
+    Path getRoot();
+}
@@ -0,0 +1,341 @@
+package com.example.blog.storage;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Уменьшенные копии загруженных изображений для адаптивной вёрстки (srcset).
+ *
+ * Копии шириной {@link #WIDTHS} хранятся на диске в &lt;корень&gt;/variants/&lt;ширина&gt;/
+ * с тем же относительным путём, что и оригинал, и раздаются по
+ * /uploads/variants/&lt;ширина&gt;/&lt;путь оригинала&gt;.
+ *
+ * Копии создаются в фоне после загрузки изображения, а для изображений,
+ * загруженных раньше, — при первом запросе копии. Работа выполняется
+ * ограниченным пулом потоков с ограниченной очередью: при переполнении
+ * фоновая задача отбрасывается (копия будет создана при запросе).
+ * Одновременные запросы одной копии ждут одну и ту же задачу.
+ *
+ * Уменьшаются JPEG и PNG; для остальных форматов (GIF, WebP) используется оригинал.
+ * Изображения не увеличиваются: если оригинал уже, копия имеет его ширину.
+ *
+ * Перед декодированием размеры читаются из заголовка: изображения больше
+ * blog.images.max-pixels не декодируются (небольшой файл может объявить
+ * 30000x30000 пикселей и занять гигабайты памяти), для них используется оригинал.
+ * Изображения, намного шире копии, декодируются с прореживанием строк и столбцов,
+ * так что в памяти оказывается картинка не больше чем вдвое шире копии.
+ * Оригиналы, которые не удалось декодировать (повреждённый файл, CMYK JPEG и т.п.),
+ * тоже заменяются самим оригиналом; такие файлы запоминаются и повторно не читаются.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /**
+     * Ширины уменьшенных копий в пикселях.
+     */
+    public static final List<Integer> WIDTHS = List.of(320, 640, 1280);
+
+    /**
+     * Каталог копий внутри корня хранилища и его URL.
+     */
+    public static final String VARIANTS_DIR = "variants";
+    public static final String VARIANTS_URL_PREFIX = ImageStorage.URL_PREFIX + VARIANTS_DIR + "/";
+
+    private final Path root;
+    private final long waitMillis;
+    private final long maxPixels;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    /** Оригиналы, для которых копии не создаются; не больше, чем файлов в хранилище. */
+    private final Set<String> unscalable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param imageStorage хранилище оригиналов
+     * @param threads      число потоков, уменьшающих изображения
+     * @param queueSize    максимальная длина очереди задач
+     * @param waitMillis   сколько запрос ждёт создания копии, прежде чем отдать оригинал
+     * @param maxPixels    максимальное число пикселей (ширина x высота) декодируемого оригинала
+     */
+    public ImageVariantService(ImageStorage imageStorage,
+            @Value("${blog.images.variant-threads:2}") int threads,
+            @Value("${blog.images.variant-queue-size:500}") int queueSize,
+            @Value("${blog.images.variant-wait-ms:2000}") long waitMillis,
+            @Value("${blog.images.max-pixels:40000000}") long maxPixels) {
+        this.root = imageStorage.getRoot().toAbsolutePath().normalize();
+        this.waitMillis = waitMillis;
+        this.maxPixels = maxPixels;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("image-variants-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Ставит в очередь создание всех копий изображения (после загрузки).
+     *
+     * @param imageUrl URL оригинала (/uploads/...)
+     */
+    public void generateAll(String imageUrl) {
+        String relative = relativePath(imageUrl);
+        if (relative == null) {
+            return;
+        }
+        for (int width : WIDTHS) {
+            try {
+                submit(relative, width);
+            } catch (RejectedExecutionException e) {
+                log.debug("Очередь копий изображений заполнена, {} будет создано по запросу", relative);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Возвращает файл копии, при необходимости создавая её и ожидая не дольше
+     * blog.images.variant-wait-ms.
+     *
+     * @param relative путь оригинала относительно корня хранилища
+     * @param width    ширина копии (одна из {@link #WIDTHS})
+     * @return файл копии; оригинал, если формат не уменьшается; null, если оригинала нет
+     *         или копия не готова вовремя
+     * @throws IOException если копию не удалось создать
+     */
+    public Path variant(String relative, int width) throws IOException {
+        if (!WIDTHS.contains(width)) {
+            return null;
+        }
+        Path original = original(relative);
+        if (original == null) {
+            return null;
+        }
+        if (!scalable(relative)) {
+            return Files.isRegularFile(original) ? original : null;
+        }
+        Path target = variantPath(relative, width);
+        if (Files.exists(target)) {
+            return target;
+        }
+        if (!Files.isRegularFile(original)) {
+            return null;
+        }
+        if (unscalable.contains(relative)) {
+            return original;
+        }
+        try {
+            return submit(relative, width).get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof IOException io) ? io : new IOException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private CompletableFuture<Path> submit(String relative, int width) {
+        String key = width + "/" + relative;
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    created.complete(generate(relative, width));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            throw e;
+        }
+        return created;
+    }
+
+    /**
+     * Создаёт копию (если её ещё нет): файл пишется во временный и атомарно переносится.
+     */
+    private Path generate(String relative, int width) throws IOException {
+        Path original = original(relative);
+        Path target = variantPath(relative, width);
+        if (original == null || !scalable(relative)) {
+            return original;
+        }
+        if (Files.exists(target)) {
+            return target;
+        }
+        if (unscalable.contains(relative)) {
+            return original;
+        }
+        BufferedImage source;
+        try {
+            source = read(original, width);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось декодировать изображение {}, копии не создаются: {}",
+                    original.getFileName(), e.toString());
+            source = null;
+        }
+        if (source == null) {
+            // формат не распознан, изображение слишком большое или повреждено: вместо копии используется оригинал
+            unscalable.add(relative);
+            return original;
+        }
+        String format = format(relative);
+        BufferedImage scaled = scale(source, Math.min(width, source.getWidth()), "jpg".equals(format));
+
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                ImageIO.write(scaled, format, out);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return target;
+    }
+
+    /**
+     * Декодирует оригинал, проверив размеры по заголовку.
+     *
+     * @return изображение или null, если формат не распознан или пикселей больше maxPixels
+     */
+    private BufferedImage read(Path original, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = (in != null) ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    log.warn("Изображение {} ({}x{}) больше {} пикселей, копии не создаются",
+                            original.getFileName(), sourceWidth, sourceHeight, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // остаётся не меньше двух ширин копии — дальше уменьшение с интерполяцией
+                int step = Math.max(1, sourceWidth / (2 * width));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Уменьшает изображение, последовательно деля ширину пополам (билинейная
+     * интерполяция за один шаг даёт заметные артефакты при сильном уменьшении).
+     */
+    static BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            int nextWidth = Math.max(width, currentWidth / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) currentHeight * nextWidth / currentWidth));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * @return путь оригинала относительно корня или null, если URL не из хранилища
+     */
+    static String relativePath(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(ImageStorage.URL_PREFIX)
+                || imageUrl.startsWith(VARIANTS_URL_PREFIX)) {
+            return null;
+        }
+        return imageUrl.substring(ImageStorage.URL_PREFIX.length());
+    }
+
+    /**
+     * @return файл оригинала или null, если путь выходит за пределы хранилища
+     *         или указывает на служебный каталог
+     */
+    private Path original(String relative) {
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root) || path.startsWith(root.resolve(VARIANTS_DIR)) || path.startsWith(root.resolve("tmp"))) {
+            return null;
+        }
+        return path;
+    }
+
+    private Path variantPath(String relative, int width) {
+        return root.resolve(VARIANTS_DIR).resolve(String.valueOf(width)).resolve(relative).normalize();
+    }
+
+    private static boolean scalable(String relative) {
+        return format(relative) != null;
+    }
+
+    private static String format(String relative) {
+        String name = relative.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return "jpg";
+        }
+        if (name.endsWith(".png")) {
+            return "png";
+        }
+        return null;
+    }
+}
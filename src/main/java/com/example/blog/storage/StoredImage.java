@@ -0,0 +1,12 @@
+package com.example.blog.storage;
+
+/**
+ * Сохранённое изображение.
+ *
+ * @param hash      SHA-256 содержимого (hex)
+ * @param url       URL изображения
+ * @param size      размер в байтах
+ * @param duplicate true, если такое же изображение уже было сохранено раньше
+ */
+public record StoredImage(String hash, String url, long size, boolean duplicate) {
+}
@@ -0,0 +1,176 @@
+package com.example.blog.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Раздача изображений /uploads/** из хранилища.
+ *
+ * <ul>
+ * <li>Файлы не меняются после записи (имя — хеш содержимого или UUID),
+ * поэтому ответ кешируется на год с пометкой immutable.</li>
+ * <li>ETag сильный: хеш содержимого из имени файла (для копий — с шириной),
+ * для старых файлов — время изменения и размер. Запросы Range (в том числе
+ * с If-Range) обрабатывает {@link ResourceHttpRequestHandler}.</li>
+ * <li>Небольшие файлы отдаются из {@link HotImageCache} без обращения к диску.</li>
+ * <li>Крупные файлы целиком отдаются через sendfile, если контейнер его поддерживает
+ * (Tomcat NIO): данные копируются из файла в сокет ядром, минуя память приложения.</li>
+ * <li>Браузеру запрещено угадывать тип (nosniff), а файлы не изображений, оставшиеся
+ * от старых загрузок, отдаются как application/octet-stream для скачивания —
+ * HTML или SVG из хранилища не выполняется на origin блога.</li>
+ * </ul>
+ */
+@Component
+public class UploadsResourceHandler extends ResourceHttpRequestHandler {
+
+    /**
+     * Атрибуты запроса Tomcat для передачи файла через sendfile.
+     */
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String RESOLVED_ATTRIBUTE = UploadsResourceHandler.class.getName() + ".resource";
+
+    private static final Pattern HASHED_PATH = Pattern.compile(
+            "^(?:" + ImageVariantService.VARIANTS_DIR + "/(\\d+)/)?[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[a-z0-9]+$");
+
+    private final Path root;
+    private final HotImageCache hotImageCache;
+
+    public UploadsResourceHandler(ImageStorage imageStorage, HotImageCache hotImageCache) {
+        this.root = imageStorage.getRoot().toAbsolutePath().normalize();
+        this.hotImageCache = hotImageCache;
+        setLocations(List.of(new FileSystemResource(root.toString() + "/")));
+        setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+        setEtagGenerator(this::etag);
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                || !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.RANGE) != null) {
+            super.handleRequest(request, response);
+            return;
+        }
+        Resource resource = getResource(request);
+        if (resource == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!resource.isFile()) {
+            // файл в памяти: обычная обработка уже найденного ресурса
+            request.setAttribute(RESOLVED_ATTRIBUTE, resource);
+            super.handleRequest(request, response);
+            return;
+        }
+
+        checkRequest(request);
+        if (new ServletWebRequest(request, response).checkNotModified(etag(resource), resource.lastModified())) {
+            return;
+        }
+        prepareResponse(response);
+        setHeaders(response, resource, getMediaType(request, resource));
+        long length = resource.contentLength();
+        response.setContentLengthLong(length);
+        // тело пишет Tomcat после выхода из обработчика
+        request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, length);
+    }
+
+    @Override
+    protected MediaType getMediaType(HttpServletRequest request, Resource resource) {
+        MediaType mediaType = super.getMediaType(request, resource);
+        return isImage(mediaType) ? mediaType : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    @Override
+    protected void setHeaders(HttpServletResponse response, Resource resource, MediaType mediaType)
+            throws IOException {
+        super.setHeaders(response, resource, mediaType);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (!isImage(mediaType)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        }
+    }
+
+    /**
+     * @return true для растровых изображений (SVG может содержать скрипты)
+     */
+    private static boolean isImage(MediaType mediaType) {
+        return mediaType != null && "image".equals(mediaType.getType()) && !mediaType.getSubtype().contains("svg");
+    }
+
+    /**
+     * Ищет файл сначала в {@link HotImageCache}, затем в каталоге хранилища.
+     * Служебный каталог временных файлов не раздаётся.
+     */
+    @Override
+    protected Resource getResource(HttpServletRequest request) throws IOException {
+        if (request.getAttribute(RESOLVED_ATTRIBUTE) instanceof Resource resolved) {
+            return resolved;
+        }
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (path == null) {
+            return null;
+        }
+        path = StringUtils.cleanPath(path);
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        if (path.startsWith("tmp/")) {
+            return null;
+        }
+
+        Resource cached = hotImageCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        Resource resource = super.getResource(request);
+        return (resource != null) ? hotImageCache.load(path, resource) : null;
+    }
+
+    /**
+     * Формирует сильный ETag файла.
+     *
+     * @param resource файл (с диска или из кеша)
+     * @return ETag без кавычек
+     */
+    String etag(Resource resource) {
+        try {
+            String path = (resource instanceof HotImageCache.CachedImage image)
+                    ? image.getPath()
+                    : root.relativize(resource.getFile().toPath().toAbsolutePath().normalize())
+                            .toString().replace('\\', '/');
+            Matcher matcher = HASHED_PATH.matcher(path);
+            if (matcher.matches()) {
+                return (matcher.group(1) != null) ? matcher.group(2) + "-w" + matcher.group(1) : matcher.group(2);
+            }
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
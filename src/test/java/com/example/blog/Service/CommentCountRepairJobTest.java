@@ -0,0 +1,64 @@
+package com.example.blog.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.blog.service.CommentCountRepairJob;
+
+public class CommentCountRepairJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CommentCountRepairJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Выполняем callback транзакции сразу, без реальной транзакции
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        job = new CommentCountRepairJob(jdbcTemplate, transactionTemplate, 1000);
+    }
+
+    @Test
+    void repair_ProcessesAllIdRangesInBatches() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(2500);
+        when(jdbcTemplate.update(anyString(), eq(0), eq(1000))).thenReturn(2);
+        when(jdbcTemplate.update(anyString(), eq(2000), eq(3000))).thenReturn(1);
+
+        int repaired = job.repair();
+
+        assertEquals(3, repaired);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(jdbcTemplate).update(anyString(), eq(0), eq(1000));
+        verify(jdbcTemplate).update(anyString(), eq(1000), eq(2000));
+        verify(jdbcTemplate).update(anyString(), eq(2000), eq(3000));
+    }
+
+    @Test
+    void repair_EmptyTable_DoesNothing() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(0);
+
+        int repaired = job.repair();
+
+        assertEquals(0, repaired);
+        verify(transactionTemplate, never()).execute(any());
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.blog.Service;
 
 import com.example.blog.model.Comment;
+import com.example.blog.model.CommentPage;
 import com.example.blog.repository.CommentRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import com.example.blog.event.PostChangedEvent;
 import com.example.blog.service.CommentService;
+import java.time.LocalDateTime;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
@@ -17,6 +26,12 @@ class CommentServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -36,12 +51,18 @@ class CommentServiceTest {
         assertEquals("Test comment", savedComment.getContent());
         assertEquals("anon", savedComment.getAuthor());
         assertNotNull(savedComment.getCreatedAt());
+
+        // счётчик комментариев поста увеличивается атомарным UPDATE
+        verify(jdbcTemplate).update("UPDATE posts SET comment_count = comment_count + 1 WHERE id = ?", 1);
+        // страницы поста и ленты с ним в кеше устаревают
+        verify(eventPublisher).publishEvent(new PostChangedEvent(1, false));
     }
 
     @Test
     void testUpdateComment_updatesContentIfFound() {
         Comment existing = new Comment();
         existing.setId(10);
+        existing.setPostId(3);
         existing.setContent("Old content");
 
         when(commentRepository.findById(10)).thenReturn(Optional.of(existing));
@@ -50,6 +71,7 @@ class CommentServiceTest {
 
         verify(commentRepository).save(commentCaptor.capture());
         assertEquals("New content", commentCaptor.getValue().getContent());
+        verify(eventPublisher).publishEvent(new PostChangedEvent(3, false));
     }
 
     @Test
@@ -60,12 +82,29 @@ class CommentServiceTest {
 
         assertEquals("Комментарий не найден", ex.getMessage());
         verify(commentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void testDeleteComment_callsRepositoryDeleteById() {
+    void testDeleteComment_deletesAndDecrementsCounterInOneStatement() {
+        when(jdbcTemplate.queryForList(contains("DELETE FROM comments WHERE id = ?"), eq(Integer.class), eq(5)))
+                .thenReturn(List.of(1));
+
         commentService.deleteComment(5);
-        verify(commentRepository).deleteById(5);
+
+        verify(jdbcTemplate).queryForList(contains("comment_count = comment_count - 1"), eq(Integer.class), eq(5));
+        verifyNoMoreInteractions(jdbcTemplate);
+        verify(commentRepository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(new PostChangedEvent(1, false));
+    }
+
+    @Test
+    void testDeleteComment_missingComment_noEvent() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(404))).thenReturn(List.of());
+
+        commentService.deleteComment(404);
+
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -78,4 +117,41 @@ class CommentServiceTest {
         assertEquals(2, result.size());
         verify(commentRepository).findByPostId(1);
     }
+
+    @Test
+    void findPage_FirstPage_ReturnsCursorOfLastComment() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123000);
+        List<Comment> rows = List.of(
+                new Comment(1, 5, "anon", "a", time),
+                new Comment(2, 5, "anon", "b", time),
+                new Comment(3, 5, "anon", "c", time.plusMinutes(1)));
+        // запрашивается на один комментарий больше размера страницы
+        when(jdbcTemplate.query(contains("ORDER BY created_at, id LIMIT ?"),
+                ArgumentMatchers.<RowMapper<Comment>>any(), eq(5), eq(3))).thenReturn(rows);
+
+        CommentPage page = commentService.findPage(5, null, 2);
+
+        assertEquals(rows.subList(0, 2), page.getComments());
+        assertEquals("2024-01-01T10:00:00.000123_2", page.getNextCursor());
+    }
+
+    @Test
+    void findPage_WithCursor_SeeksPastCursor() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123000);
+        List<Comment> rows = List.of(new Comment(3, 5, "anon", "c", time.plusMinutes(1)));
+        when(jdbcTemplate.query(contains("(created_at, id) > (?, ?)"),
+                ArgumentMatchers.<RowMapper<Comment>>any(), eq(5), eq(time), eq(2), eq(3))).thenReturn(rows);
+
+        CommentPage page = commentService.findPage(5, "2024-01-01T10:00:00.000123_2", 2);
+
+        assertEquals(rows, page.getComments());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findPage_MalformedCursor_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> commentService.findPage(5, "garbage", 10));
+        assertThrows(IllegalArgumentException.class, () -> commentService.findPage(5, "2024-01-01T10:00_x", 10));
+        verifyNoInteractions(jdbcTemplate);
+    }
 }
@@ -0,0 +1,180 @@
+package com.example.blog.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.blog.event.PostChangedEvent;
+import com.example.blog.service.LikeCounterService;
+
+public class LikeCounterServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LikeCounterService likeCounterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void like_AccumulatesInMemoryAndMergesIntoReads() {
+        likeCounterService.like(1, true);
+        likeCounterService.like(1, true);
+        likeCounterService.like(1, false);
+
+        assertEquals(1, likeCounterService.pendingDelta(1));
+        assertEquals(11, likeCounterService.merge(1, 10));
+        assertEquals(0, likeCounterService.merge(2, 0));
+        // кеш страниц сбрасывается только после записи в базу
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    void merge_NeverNegative() {
+        likeCounterService.like(1, false);
+
+        assertEquals(0, likeCounterService.merge(1, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesAllPostsInOneBatch() {
+        likeCounterService.like(1, true);
+        likeCounterService.like(1, true);
+        likeCounterService.like(2, false);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 1 });
+
+        int flushed = likeCounterService.flush();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE posts SET likes = GREATEST(0, likes + ?) WHERE id = ?"),
+                captor.capture());
+        assertEquals(2, flushed);
+        assertEquals(2, captor.getValue().size());
+        assertEquals(0, likeCounterService.pendingDelta(1));
+        assertEquals(0, likeCounterService.pendingDelta(2));
+
+        // нечего записывать — база не трогается
+        assertEquals(0, likeCounterService.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_DropsZeroedCountersAndUnknownPosts() {
+        likeCounterService.like(1, true);
+        likeCounterService.like(999, true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 });
+
+        assertEquals(2, likeCounterService.flush());
+
+        assertEquals(0, likeCounterService.pendingPosts());
+        // записанный пост сбрасывается из кеша страниц, несуществующий — нет
+        verify(eventPublisher).publishEvent(PostChangedEvent.likes(1));
+        verify(eventPublisher, never()).publishEvent(PostChangedEvent.likes(999));
+    }
+
+    @Test
+    void like_AfterCounterRetired_StartsNewCounter() {
+        likeCounterService.like(1, true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1 });
+        likeCounterService.flush();
+        assertEquals(0, likeCounterService.pendingPosts());
+
+        likeCounterService.like(1, true);
+
+        assertEquals(1, likeCounterService.pendingDelta(1));
+        assertEquals(1, likeCounterService.flush());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_Failure_KeepsPendingLikes() {
+        likeCounterService.like(1, true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+
+        assertThrows(RuntimeException.class, () -> likeCounterService.flush());
+
+        assertEquals(1, likeCounterService.pendingDelta(1));
+    }
+
+    /**
+     * Нагрузочная проверка: лайки ставятся из нескольких потоков одновременно
+     * с периодическими сбросами и удалением обнулившихся счётчиков; после
+     * последнего сброса в базу должно быть записано ровно число лайков.
+     */
+    @Test
+    void concurrentLikesAndFlushes_NoLostIncrements() throws Exception {
+        // Заглушки без Mockito: мок записывал бы каждый из сотен тысяч вызовов
+        AtomicLong written = new AtomicLong();
+        JdbcTemplate countingJdbc = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                batchArgs.forEach(row -> written.addAndGet((Long) row[0]));
+                return new int[batchArgs.size()];
+            }
+        };
+        LikeCounterService counter = new LikeCounterService(countingJdbc, event -> {
+        });
+
+        int threads = 8;
+        int likesPerThread = 50_000;
+        int posts = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                for (int i = 0; i < likesPerThread; i++) {
+                    counter.like((offset + i) % posts, true);
+                }
+                done.countDown();
+            });
+        }
+        executor.submit(() -> {
+            while (done.getCount() > 0) {
+                counter.flush();
+                Thread.onSpinWait();
+            }
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // последний сброс дописывает и остатки выведенных счётчиков
+        counter.flush();
+        long total = (long) threads * likesPerThread;
+        assertEquals(total, written.get());
+        assertEquals(0, counter.pendingPosts());
+
+        System.out.printf("Лайков: %d, потоков: %d, %.0f лайков/с%n",
+                total, threads, total / (elapsedNanos / 1_000_000_000.0));
+    }
+}
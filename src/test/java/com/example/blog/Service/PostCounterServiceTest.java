@@ -0,0 +1,120 @@
+package com.example.blog.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.blog.model.TagCount;
+import com.example.blog.service.PostCounterService;
+
+public class PostCounterServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PostCounterService postCounterService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        // База: 10 постов, тег java у 4 постов, тег spring у 2
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(10);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(tagRow("java", 4));
+            handler.processRow(tagRow("spring", 2));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void seed_LoadsCountersFromDatabase() {
+        assertFalse(postCounterService.isInitialized());
+
+        postCounterService.seed();
+
+        assertTrue(postCounterService.isInitialized());
+        assertEquals(10, postCounterService.getTotal());
+        assertEquals(4, postCounterService.getCountByTag("java"));
+        assertEquals(2, postCounterService.getCountByTag("spring"));
+        assertEquals(0, postCounterService.getCountByTag("unknown"));
+    }
+
+    @Test
+    void incrementalUpdates_AdjustTotalAndTags() {
+        postCounterService.seed();
+
+        postCounterService.postCreated(Set.of("java", "kotlin"));
+        postCounterService.tagsChanged(List.of("spring"), Set.of("kotlin"));
+        postCounterService.postDeleted(List.of("java"));
+
+        assertEquals(10, postCounterService.getTotal());
+        assertEquals(4, postCounterService.getCountByTag("java"));
+        assertEquals(1, postCounterService.getCountByTag("spring"));
+        assertEquals(2, postCounterService.getCountByTag("kotlin"));
+    }
+
+    @Test
+    void reconcile_FixesDrift() {
+        postCounterService.seed();
+        postCounterService.postCreated(Set.of("ghost"));
+
+        postCounterService.reconcile();
+
+        assertEquals(10, postCounterService.getTotal());
+        assertEquals(0, postCounterService.getCountByTag("ghost"));
+    }
+
+    @Test
+    void getTopTags_SortedByPopularityWithPrefixAndLimit() {
+        postCounterService.seed();
+        postCounterService.postCreated(Set.of("sql", "spring"));
+
+        assertEquals(List.of(new TagCount("java", 4), new TagCount("spring", 3)),
+                postCounterService.getTopTags(null, 2));
+        assertEquals(List.of(new TagCount("spring", 3), new TagCount("sql", 1)),
+                postCounterService.getTopTags("S", 10));
+        assertEquals(List.of(), postCounterService.getTopTags("kotlin", 10));
+    }
+
+    @Test
+    void getTopTags_FollowsIncrementalUpdatesWithoutDatabase() {
+        postCounterService.seed();
+        assertEquals(new TagCount("java", 4), postCounterService.getTopTags(null, 1).get(0));
+        clearInvocations(jdbcTemplate);
+
+        postCounterService.tagsChanged(List.of("java"), List.of("spring"));
+        postCounterService.tagsChanged(List.of("java"), List.of("spring"));
+
+        assertEquals(List.of(new TagCount("spring", 4), new TagCount("java", 2)),
+                postCounterService.getTopTags(null, 10));
+        // тег без постов не показывается
+        postCounterService.postDeleted(List.of("java"));
+        postCounterService.postDeleted(List.of("java"));
+        assertEquals(List.of(new TagCount("spring", 4)), postCounterService.getTopTags(null, 10));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static ResultSet tagRow(String name, int count) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("name")).thenReturn(name);
+        when(rs.getInt("cnt")).thenReturn(count);
+        return rs;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.blog.Service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -11,16 +13,27 @@ import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.blog.event.PostChangedEvent;
 import com.example.blog.model.Comment;
 import com.example.blog.model.Post;
+import com.example.blog.model.PostPreview;
 import com.example.blog.model.Tag;
 import com.example.blog.repository.CommentRepository;
 import com.example.blog.repository.PostRepository;
+import com.example.blog.repository.TagRepository;
 import com.example.blog.service.CommentService;
+import com.example.blog.service.LikeCounterService;
+import com.example.blog.service.PostCounterService;
 import com.example.blog.service.PostService;
+import com.example.blog.service.SearchService;
+import com.example.blog.service.TagPostingIndex;
 import com.example.blog.service.TagService;
 
 public class PostServiceTest {
@@ -40,12 +53,29 @@ public class PostServiceTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private PostCounterService postCounterService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LikeCounterService likeCounterService;
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private TagPostingIndex tagPostingIndex;
+
     @InjectMocks
     private PostService postService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // по умолчанию незаписанных лайков нет
+        when(likeCounterService.merge(anyInt(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
@@ -61,18 +91,6 @@ public class PostServiceTest {
         verify(postRepository).findAll();
     }
 
-    @Test
-    void findByTitle_ReturnsMatchingPosts() {
-        String search = "test";
-        Post p = new Post(1, "Test post", "prev", "img", "text", 0);
-        when(postRepository.findByTitleContainingIgnoreCase(search)).thenReturn(List.of(p));
-
-        List<Post> result = postService.findByTitle(search);
-
-        assertEquals(1, result.size());
-        assertEquals("Test post", result.get(0).getTitle());
-    }
-
     @Test
     void findById_Found_ReturnsPost() {
         Post p = new Post(1, "Title", "prev", "img", "text", 0);
@@ -84,6 +102,24 @@ public class PostServiceTest {
         assertEquals("Title", result.getTitle());
     }
 
+    @Test
+    void findById_MergesPendingLikes() {
+        when(postRepository.findById(1)).thenReturn(Optional.of(new Post(1, "Title", "prev", "img", "text", 5)));
+        when(likeCounterService.merge(1, 5)).thenReturn(8);
+
+        Post result = postService.findById(1);
+
+        assertEquals(8, result.getLikes());
+    }
+
+    @Test
+    void like_GoesToCounterWithoutReadingOrSavingPost() {
+        postService.like(3, true);
+
+        verify(likeCounterService).like(3, true);
+        verifyNoInteractions(postRepository, jdbcTemplate, tagService);
+    }
+
     @Test
     void findById_NotFound_ReturnsNull() {
         when(postRepository.findById(99)).thenReturn(Optional.empty());
@@ -94,41 +130,76 @@ public class PostServiceTest {
     }
 
     @Test
-    void save_WithTags_DeletesOldAndInsertsNewTags() {
+    @SuppressWarnings("unchecked")
+    void save_WithTags_UpsertsTagsAndBatchInsertsLinks() {
         Post post = new Post(null, "New post", "prev", "img", "text", 0);
         Post savedPost = new Post(10, "New post", "prev", "img", "text", 0);
-
         when(postRepository.save(post)).thenReturn(savedPost);
 
         Tag tag1 = new Tag(1, "tag1");
         Tag tag2 = new Tag(2, "tag2");
+        when(tagService.saveAllByName(Set.of("tag1", "tag2"))).thenReturn(List.of(tag1, tag2));
 
-        when(tagService.save(new Tag(null, "tag1"))).thenReturn(tag1);
-        when(tagService.save(new Tag(null, "tag2"))).thenReturn(tag2);
+        // пробелы и повторы не порождают лишних тегов
+        Post result = postService.save(post, List.of("tag1", " tag2 ", "tag1", " "));
 
-        List<String> tags = List.of("tag1", "tag2");
+        assertEquals(savedPost.getId(), result.getId());
+        verify(postRepository).save(post);
+        verify(tagService).saveAllByName(Set.of("tag1", "tag2"));
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)"), batch.capture());
+        assertEquals(Set.of(List.of(10, 1), List.of(10, 2)),
+                batch.getValue().stream().map(Arrays::asList).collect(java.util.stream.Collectors.toSet()));
+        // новый пост: удалять нечего
+        verifyNoMoreInteractions(jdbcTemplate);
+
+        verify(postCounterService).postCreated(Set.of("tag1", "tag2"));
+        verify(tagPostingIndex).postTagsChanged(eq(10), argThat(ids -> Set.copyOf(ids).equals(Set.of(1, 2))),
+                eq(List.of()));
+        verify(searchService).reindex(10);
+        verify(eventPublisher).publishEvent(new PostChangedEvent(10, true));
+    }
 
-        // Чтобы мок с tagService.save сработал с new Tag(null, "tag1") — нужен дополнительный матчинг
-        // Можно использовать ArgumentMatchers.any() и Answer, но проще сделать такой вариант:
-        doAnswer(invocation -> {
-            Tag arg = invocation.getArgument(0);
-            if ("tag1".equals(arg.getName())) return tag1;
-            if ("tag2".equals(arg.getName())) return tag2;
-            return null;
-        }).when(tagService).save(any(Tag.class));
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_ExistingPost_WritesOnlyChangedLinksAndAdjustsCounters() {
+        Post post = new Post(7, "Title", "prev", "img", "text", 0);
+        when(postRepository.save(post)).thenReturn(post);
+        when(tagService.findTagsByPostId(7)).thenReturn(List.of(new Tag(1, "old"), new Tag(2, "kept")));
+        when(tagService.saveAllByName(Set.of("kept", "new"))).thenReturn(List.of(new Tag(2, "kept"), new Tag(3, "new")));
+
+        postService.save(post, List.of("kept", "new"));
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)"), batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertArrayEquals(new Object[] { 7, 3 }, batch.getValue().get(0));
+
+        ArgumentCaptor<Object> removed = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(eq("DELETE FROM post_tags WHERE post_id = ? AND tag_id = ANY(?)"), eq(7),
+                removed.capture());
+        assertArrayEquals(new Integer[] { 1 }, (Integer[]) removed.getValue());
+
+        verify(postCounterService).tagsChanged(List.of("old", "kept"), Set.of("kept", "new"));
+        verify(postCounterService, never()).postCreated(any());
+        verify(tagPostingIndex).postTagsChanged(7, List.of(3), List.of(1));
+    }
 
-        Post result = postService.save(post, tags);
+    @Test
+    void save_ExistingPost_SameTags_NoLinkWrites() {
+        Post post = new Post(7, "Title", "prev", "img", "text", 0);
+        when(postRepository.save(post)).thenReturn(post);
+        when(tagService.findTagsByPostId(7)).thenReturn(List.of(new Tag(1, "java")));
+        when(tagService.saveAllByName(Set.of("java"))).thenReturn(List.of(new Tag(1, "java")));
 
-        assertEquals(savedPost.getId(), result.getId());
+        postService.save(post, List.of("java"));
 
-        verify(postRepository).save(post);
-        verify(jdbcTemplate).update("DELETE FROM post_tags WHERE post_id = ?", savedPost.getId());
-        verify(jdbcTemplate).update("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)", savedPost.getId(), tag1.getId());
-        verify(jdbcTemplate).update("INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)", savedPost.getId(), tag2.getId());
+        verifyNoInteractions(jdbcTemplate, tagPostingIndex);
     }
 
     @Test
-    void save_WithoutTags_CallsSaveWithEmptyList() {
+    void save_WithoutTags_SavesPostOnly() {
         Post post = new Post(null, "Title", "prev", "img", "text", 0);
 
         Post savedPost = new Post(5, "Title", "prev", "img", "text", 0);
@@ -138,17 +209,102 @@ public class PostServiceTest {
 
         assertEquals(savedPost.getId(), result.getId());
         verify(postRepository).save(post);
-        verify(jdbcTemplate).update("DELETE FROM post_tags WHERE post_id = ?", savedPost.getId());
+        verifyNoInteractions(jdbcTemplate);
+        verify(postCounterService).postCreated(Set.of());
     }
 
     @Test
-    void delete_CallsRepositoryDelete() {
+    void save_RolledBack_CountersUnchanged() {
+        Post post = new Post(null, "Title", "prev", "img", "text", 0);
+        when(postRepository.save(post)).thenReturn(new Post(5, "Title", "prev", "img", "text", 0));
+        when(tagService.saveAllByName(Set.of("java"))).thenReturn(List.of(new Tag(1, "java")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            postService.save(post, List.of("java"));
+        } finally {
+            // откат: afterCommit не вызывается
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(postCounterService);
+    }
+
+    @Test
+    void save_Committed_CountersAdjustedAfterCommit() {
+        Post post = new Post(7, "Title", "prev", "img", "text", 0);
+        when(postRepository.save(post)).thenReturn(post);
+        when(tagService.findTagsByPostId(7)).thenReturn(List.of(new Tag(1, "old")));
+        when(tagService.saveAllByName(Set.of("new"))).thenReturn(List.of(new Tag(3, "new")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            postService.save(post, List.of("new"));
+            verifyNoInteractions(postCounterService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(postCounterService).tagsChanged(List.of("old"), Set.of("new"));
+    }
+
+    @Test
+    void delete_RemovesPostAndAdjustsCounters() {
         int id = 1;
-        doNothing().when(postRepository).deleteById(id);
+        when(jdbcTemplate.query(contains("DELETE FROM posts WHERE id = ? RETURNING id"),
+                ArgumentMatchers.<RowMapper<Tag>>any(), eq(id)))
+                .thenReturn(List.of(new Tag(1, "java")));
 
         postService.delete(id);
 
-        verify(postRepository).deleteById(id);
+        // теги читаются тем же запросом, что удаляет пост
+        verify(tagService, never()).findTagsByPostId(anyInt());
+        verify(postCounterService).postDeleted(List.of("java"));
+        verify(tagPostingIndex).postDeleted(id, List.of(1));
+        verify(eventPublisher).publishEvent(PostChangedEvent.deleted(id));
+    }
+
+    @Test
+    void delete_PostWithoutTags_AdjustsTotalOnly() {
+        int id = 2;
+        List<Tag> rows = new ArrayList<>();
+        rows.add(null);
+        when(jdbcTemplate.query(contains("RETURNING id"), ArgumentMatchers.<RowMapper<Tag>>any(), eq(id)))
+                .thenReturn(rows);
+
+        postService.delete(id);
+
+        verify(postCounterService).postDeleted(List.of());
+        verify(tagPostingIndex).postDeleted(id, List.of());
+    }
+
+    @Test
+    void delete_MissingPost_DoesNotTouchCounters() {
+        int id = 404;
+        when(jdbcTemplate.query(contains("RETURNING id"), ArgumentMatchers.<RowMapper<Tag>>any(), eq(id)))
+                .thenReturn(List.of());
+
+        postService.delete(id);
+
+        verify(postCounterService, never()).postDeleted(any());
+        verifyNoInteractions(tagPostingIndex, eventPublisher);
+    }
+
+    @Test
+    void delete_RolledBack_CountersUnchanged() {
+        int id = 3;
+        when(jdbcTemplate.query(contains("RETURNING id"), ArgumentMatchers.<RowMapper<Tag>>any(), eq(id)))
+                .thenReturn(List.of(new Tag(1, "java")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            postService.delete(id);
+        } finally {
+            // откат: afterCommit не вызывается
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verifyNoInteractions(postCounterService, tagPostingIndex);
     }
 
     @Test
@@ -188,32 +344,73 @@ public class PostServiceTest {
 
     @Test
     void getTagsForPosts_ReturnsMap() {
-        Post p1 = new Post(1, "t1", "p1", "img1", "text1", 0);
-        Post p2 = new Post(2, "t2", "p2", "img2", "text2", 0);
+        PostPreview p1 = new PostPreview(1, "t1", "p1", "img1", 0, 0, "text1");
+        PostPreview p2 = new PostPreview(2, "t2", "p2", "img2", 0, 0, "text2");
 
         List<Tag> tags1 = List.of(new Tag(1, "tag1"));
         List<Tag> tags2 = List.of(new Tag(2, "tag2"));
 
-        when(tagService.findTagsByPostId(1)).thenReturn(tags1);
-        when(tagService.findTagsByPostId(2)).thenReturn(tags2);
+        when(tagService.findTagsByPostIds(List.of(1, 2))).thenReturn(Map.of(1, tags1, 2, tags2));
 
         Map<Integer, List<Tag>> result = postService.getTagsForPosts(List.of(p1, p2));
 
         assertEquals(2, result.size());
         assertEquals(tags1, result.get(1));
         assertEquals(tags2, result.get(2));
+        verify(tagService, never()).findTagsByPostId(anyInt());
+    }
+
+    @Test
+    void getCommentCountsForPosts_ReadsDenormalizedCounter() {
+        PostPreview p1 = new PostPreview(1, "t1", "p1", "img1", 0, 4, "text1");
+        PostPreview p2 = new PostPreview(2, "t2", "p2", "img2", 0, 0, "text2");
+
+        Map<Integer, Integer> result = postService.getCommentCountsForPosts(List.of(p1, p2));
+
+        assertEquals(Map.of(1, 4, 2, 0), result);
+        verifyNoInteractions(jdbcTemplate, commentRepository);
+    }
+
+    @Test
+    void feedAssembly_StatementCountDoesNotDependOnPageSize() {
+        // Реальный TagService поверх мока JdbcTemplate: считаем все обращения к базе
+        TagService realTagService = new TagService(mock(TagRepository.class), jdbcTemplate);
+        PostService service = new PostService(postRepository, realTagService, commentService,
+                commentRepository, jdbcTemplate, postCounterService, eventPublisher, likeCounterService,
+                searchService, tagPostingIndex);
+
+        int smallPage = countFeedStatements(service, 1);
+        int largePage = countFeedStatements(service, 100);
+
+        assertEquals(1, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    private int countFeedStatements(PostService service, int pageSize) {
+        clearInvocations(jdbcTemplate, commentRepository);
+        List<PostPreview> posts = new ArrayList<>();
+        for (int i = 1; i <= pageSize; i++) {
+            posts.add(new PostPreview(i, "t" + i, "p" + i, null, 0, 0, "text" + i));
+        }
+
+        service.getTagsForPosts(posts);
+        service.getCommentCountsForPosts(posts);
+
+        return mockingDetails(jdbcTemplate).getInvocations().size()
+                + mockingDetails(commentRepository).getInvocations().size();
     }
 
     @Test
     void findByTagName_ReturnsPosts() {
         String tag = "java";
         Post p = new Post(1, "Title", "prev", "img", "text", 0);
+        when(tagService.findIdByName(tag)).thenReturn(4);
 
         // Мокаем jdbcTemplate.query с уточнением типа, чтобы не было warning
         when(jdbcTemplate.query(
             anyString(),
             ArgumentMatchers.<RowMapper<Post>>any(),
-            eq(tag)
+            eq(4)
         )).thenReturn(List.of(p));
 
         List<Post> result = postService.findByTagName(tag);
@@ -226,14 +423,15 @@ public class PostServiceTest {
     void findPaginated_WithTag_ReturnsPosts() {
         int page = 0, size = 10;
         String tag = "spring";
+        when(tagService.findIdByName(tag)).thenReturn(2);
 
         when(jdbcTemplate.query(
                 anyString(),
-                ArgumentMatchers.<RowMapper<Post>>any(),
-                eq(tag), eq(size), eq(page * size)
-        )).thenReturn(List.of(new Post(1, "title", "prev", "img", "text", 0)));
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(2), eq(size), eq(page * size)
+        )).thenReturn(List.of(new PostPreview(1, "title", "prev", "img", 0, 0, "text")));
 
-        List<Post> result = postService.findPaginated(page, size, tag);
+        List<PostPreview> result = postService.findPaginated(page, size, tag);
 
         assertEquals(1, result.size());
     }
@@ -244,26 +442,131 @@ public class PostServiceTest {
 
         when(jdbcTemplate.query(
                 anyString(),
-                ArgumentMatchers.<RowMapper<Post>>any(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
                 eq(size), eq(page * size)
-        )).thenReturn(List.of(new Post(2, "title2", "prev", "img", "text", 0)));
+        )).thenReturn(List.of(new PostPreview(2, "title2", "prev", "img", 0, 0, "text")));
 
-        List<Post> result = postService.findPaginated(page, size, null);
+        List<PostPreview> result = postService.findPaginated(page, size, null);
 
         assertEquals(1, result.size());
     }
 
+    @Test
+    void findPaginated_SelectsExcerptInsteadOfFullText() {
+        when(tagService.findIdByName("java")).thenReturn(3);
+        postService.findPaginated(0, 10, null);
+        postService.findPaginated(0, 10, "java");
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(
+                sql.capture(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(10), eq(0));
+        verify(jdbcTemplate).query(
+                sql.capture(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(3), eq(10), eq(0));
+        for (String query : sql.getAllValues()) {
+            assertFalse(query.contains("*"), query);
+            assertFalse(query.contains("JOIN tags"), query);
+            assertTrue(query.contains("SUBSTRING(p.text, 1, " + PostPreview.EXCERPT_LENGTH + ")"), query);
+        }
+    }
+
+    @Test
+    void findPageBefore_WithoutTag_UsesKeysetCursor() {
+        int before = 100, size = 5;
+
+        when(jdbcTemplate.query(
+                anyString(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(before), eq(size)
+        )).thenReturn(List.of(new PostPreview(99, "title", "prev", "img", 0, 0, "text")));
+
+        List<PostPreview> result = postService.findPageBefore(before, size, null);
+
+        assertEquals(1, result.size());
+        verify(jdbcTemplate).query(
+                contains("id < ?"),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(before), eq(size));
+    }
+
+    @Test
+    void findPageBefore_WithTag_UsesKeysetCursor() {
+        int before = 100, size = 5;
+        String tag = "spring";
+        when(tagService.findIdByName(tag)).thenReturn(2);
+
+        when(jdbcTemplate.query(
+                anyString(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(2), eq(before), eq(size)
+        )).thenReturn(List.of(new PostPreview(42, "title", "prev", "img", 0, 0, "text")));
+
+        List<PostPreview> result = postService.findPageBefore(before, size, tag);
+
+        assertEquals(1, result.size());
+        verify(jdbcTemplate).query(
+                contains("pt.tag_id = ? AND p.id < ?"),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(2), eq(before), eq(size));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void findPageAfter_ReturnsPostsInFeedOrder() {
+        int after = 10, size = 3;
+
+        when(jdbcTemplate.query(
+                anyString(),
+                ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(after), eq(size)
+        )).thenReturn(List.of(
+                new PostPreview(11, "t11", "p", null, 0, 0, "text"),
+                new PostPreview(12, "t12", "p", null, 0, 0, "text"),
+                new PostPreview(13, "t13", "p", null, 0, 0, "text")));
+
+        List<PostPreview> result = postService.findPageAfter(after, size, null);
+
+        assertEquals(List.of(13, 12, 11), result.stream().map(PostPreview::getId).toList());
+    }
+
+    @Test
+    void countPosts_CountersInitialized_NoDatabaseQuery() {
+        when(postCounterService.isInitialized()).thenReturn(true);
+        when(postCounterService.getTotal()).thenReturn(42);
+        when(postCounterService.getCountByTag("java")).thenReturn(3);
+
+        assertEquals(42, postService.countPosts(null));
+        assertEquals(3, postService.countPosts("java"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     void countPosts_WithTag_ReturnsCount() {
         String tag = "java";
+        when(tagService.findIdByName(tag)).thenReturn(5);
 
-        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(tag))).thenReturn(7);
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_tags WHERE tag_id = ?", Integer.class, 5))
+                .thenReturn(7);
 
         int count = postService.countPosts(tag);
 
         assertEquals(7, count);
     }
 
+    @Test
+    void tagFilteredQueries_UnknownTag_NoDatabaseQuery() {
+        when(tagService.findIdByName("nope")).thenReturn(null);
+
+        assertTrue(postService.findPaginated(0, 10, "nope").isEmpty());
+        assertTrue(postService.findPageBefore(100, 10, "nope").isEmpty());
+        assertTrue(postService.findPageAfter(1, 10, "nope").isEmpty());
+        assertEquals(0, postService.countPosts("nope"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     void countPosts_WithoutTag_ReturnsCount() {
         when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(10);
@@ -273,4 +576,48 @@ public class PostServiceTest {
         assertEquals(10, count);
     }
 
+    @Test
+    void findPaginated_MultipleTags_FetchesOnlyPageIdsFromIndex() {
+        when(tagService.findIdByName("java")).thenReturn(1);
+        when(tagService.findIdByName("sql")).thenReturn(2);
+        when(tagPostingIndex.match(List.of(1, 2), true)).thenReturn(RoaringBitmap.bitmapOf(3, 5, 8, 13, 21));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<PostPreview>>any(), any(Object.class)))
+                .thenReturn(List.of(new PostPreview(8, "t8", "p", null, 0, 0, "text"),
+                        new PostPreview(5, "t5", "p", null, 0, 0, "text")));
+
+        List<PostPreview> result = postService.findPaginated(1, 2, List.of("java", "sql"), true);
+
+        assertEquals(List.of(8, 5), result.stream().map(PostPreview::getId).toList());
+        ArgumentCaptor<Object> ids = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(contains("p.id = ANY(?)"), ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                ids.capture());
+        assertArrayEquals(new Integer[] { 8, 5 }, (Integer[]) ids.getValue());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void countPosts_MultipleTags_UsesBitmapCardinality() {
+        when(tagService.findIdByName("java")).thenReturn(1);
+        when(tagService.findIdByName("nope")).thenReturn(null);
+        when(tagService.findIdByName("sql")).thenReturn(2);
+        when(tagPostingIndex.match(List.of(1, 2), false)).thenReturn(RoaringBitmap.bitmapOf(1, 2, 3));
+
+        // "любой тег": неизвестный тег пропускается, "все теги": результат пуст
+        assertEquals(3, postService.countPosts(List.of("java", "nope", "sql"), false));
+        assertEquals(0, postService.countPosts(List.of("java", "nope", "sql"), true));
+        assertTrue(postService.findPageBefore(100, 10, List.of("java", "nope"), true).isEmpty());
+        verify(tagPostingIndex, never()).match(any(), eq(true));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void findPaginated_SingleTagInList_UsesTagQuery() {
+        when(tagService.findIdByName("java")).thenReturn(2);
+
+        postService.findPaginated(0, 10, List.of("java"), true);
+
+        verify(jdbcTemplate).query(contains("pt.tag_id = ?"), ArgumentMatchers.<RowMapper<PostPreview>>any(),
+                eq(2), eq(10), eq(0));
+        verifyNoInteractions(tagPostingIndex);
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.blog.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.example.blog.model.SearchHit;
+import com.example.blog.service.LikeCounterService;
+import com.example.blog.service.SearchService;
+
+public class SearchServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LikeCounterService likeCounterService;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void search_UsesIndexedVectorWithRankingAndPaging() {
+        SearchHit hit = new SearchHit(1, "Spring", "prev", null, 0, 0, 0.5, "<mark>Spring</mark>");
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<SearchHit>>any(),
+                eq("spring boot"), eq(11), eq(20))).thenReturn(List.of(hit));
+
+        List<SearchHit> result = searchService.search("  spring boot ", 11, 20);
+
+        assertEquals(List.of(hit), result);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), ArgumentMatchers.<RowMapper<SearchHit>>any(),
+                eq("spring boot"), eq(11), eq(20));
+        assertTrue(sql.getValue().contains("search_vector @@ q"));
+        assertTrue(sql.getValue().contains("ORDER BY rank DESC"));
+        // без COUNT(*): время ответа не зависит от числа совпадений
+        assertFalse(sql.getValue().contains("COUNT("));
+    }
+
+    @Test
+    void search_BlankQuery_NoDatabaseQuery() {
+        assertTrue(searchService.search(" ", 10, 0).isEmpty());
+        assertTrue(searchService.search(null, 10, 0).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void reindex_UpdatesVectorOfOnePost() {
+        searchService.reindex(5);
+
+        verify(jdbcTemplate).update(contains("SET search_vector ="), eq(5));
+    }
+
+    @Test
+    void highlight_EscapesTextAndMarksMatches() {
+        String headline = "<script>x</script> про \u0002Spring\u0003 & Java";
+
+        assertEquals("&lt;script&gt;x&lt;/script&gt; про <mark>Spring</mark> &amp; Java",
+                SearchService.highlight(headline));
+    }
+
+    @Test
+    void searchTitles_SubstringOrSimilarWordWithCap() {
+        searchService.searchTitles(" 100%_spring ", 1000);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), ArgumentMatchers.<RowMapper<SearchHit>>any(),
+                eq("100%_spring"), eq("%100\\%\\_spring%"), eq("100%_spring"), eq(SearchService.MAX_TITLE_RESULTS));
+        assertTrue(sql.getValue().contains("ILIKE"));
+        assertTrue(sql.getValue().contains("<% p.title"));
+        assertTrue(sql.getValue().contains("ORDER BY rank DESC"));
+    }
+
+    @Test
+    void searchTitles_BlankQuery_NoDatabaseQuery() {
+        assertTrue(searchService.searchTitles("", 10).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.blog.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.blog.service.TagPostingIndex;
+
+public class TagPostingIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TagPostingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Подставляет содержимое post_tags: пары {tag_id, post_id}.
+     */
+    private void givenPostTags(int[]... links) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int[] link : links) {
+                handler.processRow(row(link[0], link[1]));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void match_AllAndAny_IntersectAndUnion() {
+        givenPostTags(new int[] { 1, 10 }, new int[] { 1, 11 }, new int[] { 1, 12 },
+                new int[] { 2, 11 }, new int[] { 2, 12 }, new int[] { 2, 13 });
+
+        assertEquals(RoaringBitmap.bitmapOf(11, 12), index.match(List.of(1, 2), true));
+        assertEquals(RoaringBitmap.bitmapOf(10, 11, 12, 13), index.match(List.of(1, 2), false));
+        assertTrue(index.match(List.of(1, 99), true).isEmpty());
+        // индекс строится один раз при первом обращении
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void match_ReturnsCopy() {
+        givenPostTags(new int[] { 1, 10 });
+
+        index.match(List.of(1), true).add(99);
+
+        assertEquals(RoaringBitmap.bitmapOf(10), index.match(List.of(1), true));
+    }
+
+    @Test
+    void postTagsChanged_UpdatesIndex() {
+        givenPostTags(new int[] { 1, 10 });
+        index.rebuild();
+
+        index.postTagsChanged(20, List.of(1, 2), List.of());
+        index.postTagsChanged(10, List.of(), List.of(1));
+        index.postDeleted(20, List.of(2));
+
+        assertEquals(RoaringBitmap.bitmapOf(20), index.match(List.of(1), false));
+        assertTrue(index.match(List.of(2), false).isEmpty());
+    }
+
+    @Test
+    void rebuild_ReplaysChangesMadeDuringLoad() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(1, 10));
+            // изменение, зафиксированное, пока индекс читался из базы
+            index.postTagsChanged(30, List.of(1), List.of());
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        index.rebuild();
+
+        assertEquals(RoaringBitmap.bitmapOf(10, 30), index.match(List.of(1), true));
+    }
+
+    @Test
+    void pageIds_SliceInFeedOrder() {
+        RoaringBitmap posts = RoaringBitmap.bitmapOf(3, 5, 8, 13, 21);
+
+        assertEquals(List.of(21, 13), TagPostingIndex.pageIds(posts, 0, 2));
+        assertEquals(List.of(8, 5), TagPostingIndex.pageIds(posts, 2, 2));
+        assertEquals(List.of(3), TagPostingIndex.pageIds(posts, 4, 2));
+        assertEquals(List.of(), TagPostingIndex.pageIds(posts, 6, 2));
+    }
+
+    @Test
+    void pageIdsBeforeAndAfter_SliceAroundCursor() {
+        RoaringBitmap posts = RoaringBitmap.bitmapOf(3, 5, 8, 13, 21);
+
+        assertEquals(List.of(8, 5), TagPostingIndex.pageIdsBefore(posts, 13, 2));
+        assertEquals(List.of(8, 5), TagPostingIndex.pageIdsBefore(posts, 10, 2));
+        assertEquals(List.of(), TagPostingIndex.pageIdsBefore(posts, 3, 2));
+
+        // ближайшие к курсору посты с большим id, в порядке ленты
+        assertEquals(List.of(13, 8), TagPostingIndex.pageIdsAfter(posts, 5, 2));
+        assertEquals(List.of(21), TagPostingIndex.pageIdsAfter(posts, 13, 2));
+        assertEquals(List.of(), TagPostingIndex.pageIdsAfter(posts, 21, 2));
+    }
+
+    private static ResultSet row(int tagId, int postId) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("tag_id")).thenReturn(tagId);
+        when(rs.getInt("post_id")).thenReturn(postId);
+        return rs;
+    }
+}
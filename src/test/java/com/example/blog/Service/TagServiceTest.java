@@ -2,17 +2,24 @@ package com.example.blog.Service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.sql.ResultSet;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.example.blog.model.Tag;
 import com.example.blog.repository.TagRepository;
@@ -70,6 +77,32 @@ public class TagServiceTest {
                 eq(postId));
     }
 
+    @Test
+    void findTagsByPostIds_SingleQueryForAllPosts() {
+        Map<Integer, List<Tag>> result = tagService.findTagsByPostIds(List.of(1, 2, 3));
+
+        // Каждый пост присутствует в результате, даже если тегов у него нет
+        assertEquals(3, result.size());
+        assertTrue(result.get(2).isEmpty());
+
+        verify(jdbcTemplate, times(1)).query(
+                anyString(),
+                any(RowCallbackHandler.class),
+                ArgumentMatchers.<Object>any());
+        verify(jdbcTemplate, never()).query(
+                anyString(),
+                ArgumentMatchers.<RowMapper<Tag>>any(),
+                anyInt());
+    }
+
+    @Test
+    void findTagsByPostIds_EmptyInput_NoQuery() {
+        Map<Integer, List<Tag>> result = tagService.findTagsByPostIds(List.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     void save_WhenTagExists_ReturnsExistingTag() {
         Tag inputTag = new Tag();
@@ -114,4 +147,176 @@ public class TagServiceTest {
         // Проверяем, что save у репозитория вызвался ровно один раз
         verify(tagRepository, times(1)).save(inputTag);
     }
+
+    @Test
+    void saveAllByName_AllNew_SingleInsertStatement() {
+        List<Tag> saved = List.of(new Tag(1, "java"), new Tag(2, "spring"));
+        when(jdbcTemplate.query(
+                contains("ON CONFLICT (name) DO NOTHING"),
+                ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class))).thenReturn(saved);
+
+        List<Tag> result = tagService.saveAllByName(List.of("java", "spring"));
+
+        assertEquals(saved, result);
+        ArgumentCaptor<Object> names = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(anyString(), ArgumentMatchers.<RowMapper<Tag>>any(), names.capture());
+        assertArrayEquals(new String[] { "java", "spring" }, (String[]) names.getValue());
+        verifyNoInteractions(tagRepository);
+    }
+
+    @Test
+    void saveAllByName_ExistingTags_ReadWithoutLockingUpdate() {
+        when(jdbcTemplate.query(
+                contains("ON CONFLICT (name) DO NOTHING"),
+                ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class))).thenReturn(List.of(new Tag(2, "spring")));
+        when(jdbcTemplate.query(
+                eq("SELECT id, name FROM tags WHERE name = ANY(?)"),
+                ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class))).thenReturn(List.of(new Tag(1, "java")));
+
+        List<Tag> result = tagService.saveAllByName(List.of("java", "spring"));
+
+        assertEquals(List.of(new Tag(2, "spring"), new Tag(1, "java")), result);
+        ArgumentCaptor<Object> existing = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(eq("SELECT id, name FROM tags WHERE name = ANY(?)"),
+                ArgumentMatchers.<RowMapper<Tag>>any(), existing.capture());
+        assertArrayEquals(new String[] { "java" }, (String[]) existing.getValue());
+        verify(jdbcTemplate, never()).query(contains("DO UPDATE"), ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class));
+    }
+
+    @Test
+    void saveAllByName_EmptyInput_NoQuery() {
+        assertTrue(tagService.saveAllByName(List.of()).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void findTagsByPostIds_UsesDictionaryAndSharesTagInstances() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("id", 1), Map.of("name", "java")));
+            handler.processRow(row(Map.of("id", 2), Map.of("name", "spring")));
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT id, name FROM tags"), any(RowCallbackHandler.class));
+        tagService.loadDictionary();
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("post_id", 10, "tag_id", 1), Map.of()));
+            handler.processRow(row(Map.of("post_id", 11, "tag_id", 1), Map.of()));
+            handler.processRow(row(Map.of("post_id", 11, "tag_id", 2), Map.of()));
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM post_tags"), any(RowCallbackHandler.class), any(Object.class));
+
+        Map<Integer, List<Tag>> result = tagService.findTagsByPostIds(List.of(10, 11));
+
+        assertEquals(List.of(new Tag(1, "java")), result.get(10));
+        assertEquals(List.of(new Tag(1, "java"), new Tag(2, "spring")), result.get(11));
+        // один и тот же объект тега на всех постах
+        assertSame(result.get(10).get(0), result.get(11).get(0));
+        // имена тегов не запрашиваются: соединения с tags и дочитывания нет
+        verify(jdbcTemplate, never()).query(contains("FROM tags WHERE id"), any(RowCallbackHandler.class),
+                any(Object.class));
+    }
+
+    @Test
+    void findIdByName_KnownTag_NoQuery() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("id", 7), Map.of("name", "java")));
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT id, name FROM tags"), any(RowCallbackHandler.class));
+        tagService.loadDictionary();
+
+        assertEquals(7, tagService.findIdByName("java"));
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<Tag>>any(), eq("java"));
+    }
+
+    @Test
+    void findIdByName_UnknownTag_ReturnsNull() {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Tag>>any(), eq("nope")))
+                .thenReturn(List.of());
+
+        assertNull(tagService.findIdByName("nope"));
+    }
+
+    @Test
+    void saveAllByName_RolledBack_DictionaryNotPolluted() throws Exception {
+        when(jdbcTemplate.query(contains("ON CONFLICT (name) DO NOTHING"), ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class))).thenReturn(List.of(new Tag(5, "java")));
+        givenTagInDatabase(8, "java");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tagService.saveAllByName(List.of("java"));
+        } finally {
+            // откат: afterCommit не вызывается
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(8, tagService.findIdByName("java"));
+    }
+
+    @Test
+    void saveAllByName_Committed_RegisteredAfterCommit() {
+        when(jdbcTemplate.query(contains("ON CONFLICT (name) DO NOTHING"), ArgumentMatchers.<RowMapper<Tag>>any(),
+                any(Object.class))).thenReturn(List.of(new Tag(5, "java")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tagService.saveAllByName(List.of("java"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(5, tagService.findIdByName("java"));
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<Tag>>any(), eq("java"));
+    }
+
+    @Test
+    void register_DifferentIdForKnownName_ReplacesMapping() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("id", 5), Map.of("name", "java")));
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT id, name FROM tags"), any(RowCallbackHandler.class));
+        tagService.loadDictionary();
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("post_id", 10, "tag_id", 8), Map.of()));
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM post_tags"), any(RowCallbackHandler.class), any(Object.class));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(Map.of("id", 8), Map.of("name", "java")));
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM tags WHERE id"), any(RowCallbackHandler.class), any(Object.class));
+
+        tagService.findTagsByPostIds(List.of(10));
+
+        assertEquals(8, tagService.findIdByName("java"));
+    }
+
+    private void givenTagInDatabase(int id, String name) {
+        when(jdbcTemplate.query(eq("SELECT id, name FROM tags WHERE name = ?"), ArgumentMatchers.<RowMapper<Tag>>any(),
+                eq(name))).thenAnswer(invocation -> {
+                    RowMapper<Tag> mapper = invocation.getArgument(1);
+                    return List.of(mapper.mapRow(row(Map.of("id", id), Map.of("name", name)), 0));
+                });
+    }
+
+    private static ResultSet row(Map<String, Integer> ints, Map<String, String> strings) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        for (Map.Entry<String, Integer> e : ints.entrySet()) {
+            when(rs.getInt(e.getKey())).thenReturn(e.getValue());
+        }
+        for (Map.Entry<String, String> e : strings.entrySet()) {
+            when(rs.getString(e.getKey())).thenReturn(e.getValue());
+        }
+        return rs;
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.blog.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link ThreadModeBenchmark} на пуле платформенных потоков Tomcat (по умолчанию 200 потоков).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        ThreadModeBenchmark.COMMON_PROPERTIES,
+        "spring.threads.virtual.enabled=false",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000" })
+class PlatformThreadsBenchmark extends ThreadModeBenchmark {
+
+    @Override
+    String mode() {
+        return "платформенные потоки";
+    }
+}
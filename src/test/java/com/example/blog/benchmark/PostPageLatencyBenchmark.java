@@ -0,0 +1,110 @@
+package com.example.blog.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.view.AbstractView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.example.blog.cache.ContentVersions;
+import com.example.blog.concurrent.ParallelQueries;
+import com.example.blog.controller.PostController;
+import com.example.blog.model.CommentPage;
+import com.example.blog.model.Post;
+import com.example.blog.model.PostPreview;
+import com.example.blog.service.PostService;
+import com.example.blog.storage.ImageStorage;
+import com.example.blog.storage.ImageVariantService;
+
+/**
+ * Задержка ответа /posts и /posts/{id} при последовательных и параллельных
+ * (виртуальные потоки) запросах к базе. Каждый запрос сервиса искусственно
+ * замедлен на benchmark.query-delay-ms (по умолчанию 50 мс); база не нужна.
+ *
+ * Запуск: ./gradlew benchmark --tests '*PostPageLatencyBenchmark' -Dbenchmark.query-delay-ms=100
+ */
+@Tag("benchmark")
+class PostPageLatencyBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 20;
+
+    private final long delay = Long.getLong("benchmark.query-delay-ms", 50);
+
+    @Test
+    void viewPost() throws Exception {
+        long sequential = measure(false, "/posts/1");
+        long parallel = measure(true, "/posts/1");
+        report("/posts/1 (пост, теги, комментарии)", sequential, parallel);
+        // три независимых запроса: параллельно — около одной задержки
+        assertThat(parallel).isLessThan(sequential * 2 / 3);
+    }
+
+    @Test
+    void listPosts() throws Exception {
+        long sequential = measure(false, "/posts");
+        long parallel = measure(true, "/posts");
+        // страница и подсчёт — параллельно, теги страницы зависят от её id
+        report("/posts (страница, количество, теги)", sequential, parallel);
+        assertThat(parallel).isLessThan(sequential);
+    }
+
+    private long measure(boolean parallel, String url) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new PostController(slowPostService(), new ContentVersions(), new ParallelQueries(parallel),
+                        mock(ImageStorage.class), mock(ImageVariantService.class)))
+                // шаблоны не отрисовываются: измеряется только работа контроллера и сервиса
+                .setSingleView(new AbstractView() {
+                    @Override
+                    protected void renderMergedOutputModel(Map<String, Object> model, HttpServletRequest request,
+                            HttpServletResponse response) {
+                    }
+                })
+                .build();
+        for (int i = 0; i < WARMUP; i++) {
+            mockMvc.perform(get(url)).andExpect(status().isOk());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mockMvc.perform(get(url)).andExpect(status().isOk());
+        }
+        return (System.nanoTime() - start) / ITERATIONS / 1_000_000;
+    }
+
+    private PostService slowPostService() {
+        PostService postService = mock(PostService.class);
+        PostPreview preview = new PostPreview(1, "Заголовок", "Превью", null, 0, 0, "Текст");
+        when(postService.findById(1)).thenAnswer(delayed(new Post(1, "Заголовок", "Превью", null, "Текст", 0)));
+        when(postService.findTagsByPostId(1)).thenAnswer(delayed(List.of()));
+        when(postService.findCommentPage(eq(1), isNull(), anyInt())).thenAnswer(delayed(new CommentPage(List.of(), null)));
+        when(postService.countPosts(anyList(), anyBoolean())).thenAnswer(delayed(1));
+        when(postService.findPaginated(anyInt(), anyInt(), anyList(), anyBoolean())).thenAnswer(delayed(List.of(preview)));
+        when(postService.getTagsForPosts(anyList())).thenAnswer(delayed(Map.of()));
+        return postService;
+    }
+
+    private Answer<Object> delayed(Object result) {
+        return invocation -> {
+            Thread.sleep(delay);
+            return result;
+        };
+    }
+
+    private void report(String name, long sequentialMillis, long parallelMillis) {
+        System.out.printf("[%s] задержка запроса: %d мс, последовательно: %d мс, параллельно: %d мс%n",
+                name, delay, sequentialMillis, parallelMillis);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.blog.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.blog.service.PostCounterService;
+import com.example.blog.service.TagPostingIndex;
+
+/**
+ * Пропускная способность /posts и /posts/{id} на блокирующем стеке
+ * (Spring MVC + JdbcTemplate) при 100, 1 000 и 10 000 одновременных клиентах.
+ * Подклассы запускают приложение на платформенных и на виртуальных потоках;
+ * кеш страниц отключён, чтобы каждый запрос доходил до базы.
+ *
+ * Запуск: ./gradlew benchmark --tests '*ThreadsBenchmark'
+ * Параметры: -Dbenchmark.posts (по умолчанию 10 000),
+ * -Dbenchmark.clients=100,1000,10000, -Dbenchmark.requests-per-client (по умолчанию 5).
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class ThreadModeBenchmark {
+
+    static final String COMMON_PROPERTIES = "blog.page-cache.enabled=false";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private TagPostingIndex tagPostingIndex;
+
+    private final int posts = Integer.getInteger("benchmark.posts", 10_000);
+    private final int requestsPerClient = Integer.getInteger("benchmark.requests-per-client", 5);
+
+    /**
+     * @return название режима для отчёта
+     */
+    abstract String mode();
+
+    @BeforeAll
+    void fillPosts() {
+        jdbcTemplate.update("TRUNCATE posts, tags RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("""
+                INSERT INTO posts (title, preview, text)
+                SELECT 'Пост ' || i, 'превью ' || i, repeat('текст поста ' || i || ' ', 50)
+                FROM generate_series(1, ?) AS i
+                """, posts);
+        jdbcTemplate.execute("ANALYZE posts");
+        postCounterService.reconcile();
+        tagPostingIndex.rebuild();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("TRUNCATE posts, tags RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void concurrentClients() throws Exception {
+        for (String clients : System.getProperty("benchmark.clients", "100,1000,10000").split(",")) {
+            run(Integer.parseInt(clients.trim()));
+        }
+    }
+
+    private void run(int clients) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        // клиенты — виртуальные потоки в любом режиме: ограничивает только сервер
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .executor(executor)
+                        .build()) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        request(client, latencies, rejected, failed);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            report(clients, elapsed, latencies, rejected.get(), failed.get());
+        }
+    }
+
+    private void request(HttpClient client, List<Long> latencies, AtomicInteger rejected, AtomicInteger failed) {
+        // поровну ленты (страница и количество) и страницы поста (пост, теги, комментарии)
+        String path = ThreadLocalRandom.current().nextBoolean()
+                ? "/posts?page=" + ThreadLocalRandom.current().nextInt(posts / 10)
+                : "/posts/" + (1 + ThreadLocalRandom.current().nextInt(posts));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                latencies.add(System.nanoTime() - start);
+            } else if (response.statusCode() == 503) {
+                rejected.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    private void report(int clients, long elapsedNanos, List<Long> latencies, int rejected, int failed) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("[%s] клиентов: %d, успешно: %d за %.1f с (%.0f запр/с), p50: %d мс, p99: %d мс, "
+                        + "503: %d, ошибок: %d%n",
+                mode(), clients, sorted.size(), seconds, sorted.size() / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), rejected, failed);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1)))) / 1_000_000;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.blog.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.blog.model.SearchHit;
+import com.example.blog.service.SearchService;
+
+/**
+ * Сравнение поиска по заголовку: прежний запрос findByTitleContainingIgnoreCase
+ * (UPPER(title) LIKE UPPER('%x%') — последовательное сканирование, воспроизводится
+ * здесь напрямую) против триграммного индекса pg_trgm.
+ *
+ * Запуск: ./gradlew benchmark -Dbenchmark.posts=1000000
+ * (по умолчанию 100 000 постов). Таблицы заполняются в тестовой базе и очищаются после.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TitleSearchBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SearchService searchService;
+
+    private final int posts = Integer.getInteger("benchmark.posts", 100_000);
+
+    @BeforeAll
+    void fillPosts() {
+        jdbcTemplate.update("TRUNCATE posts RESTART IDENTITY CASCADE");
+        String sql = """
+                INSERT INTO posts (title, preview, text)
+                SELECT (ARRAY['Spring', 'Java', 'Postgres', 'Kotlin', 'Docker', 'Gradle', 'Thymeleaf', 'Linux'])[1 + i % 8]
+                       || ' ' || (ARRAY['заметки', 'советы', 'обзор', 'ошибки', 'производительность'])[1 + i % 5]
+                       || ' ' || md5(i::text),
+                       'превью ' || i, 'текст ' || i
+                FROM generate_series(1, ?) AS i
+                """;
+        jdbcTemplate.update(sql, posts);
+        jdbcTemplate.execute("ANALYZE posts");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("TRUNCATE posts RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void substringSearch() {
+        // точная подстрока: есть в обоих режимах
+        long baseline = measure(() -> containingIgnoreCase("производит").size());
+        long trigram = measure(() -> searchService.searchTitles("производит", SearchService.MAX_TITLE_RESULTS).size());
+        report("подстрока", baseline, trigram);
+    }
+
+    @Test
+    void typoSearch() {
+        // опечатка: ContainingIgnoreCase ничего не находит, триграммы — находят
+        assertThat(containingIgnoreCase("Postgress")).isEmpty();
+        List<SearchHit> hits = searchService.searchTitles("Postgress", SearchService.MAX_TITLE_RESULTS);
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).getTitle()).startsWith("Postgres");
+
+        long baseline = measure(() -> containingIgnoreCase("Postgress").size());
+        long trigram = measure(() -> searchService.searchTitles("Postgress", SearchService.MAX_TITLE_RESULTS).size());
+        report("опечатка", baseline, trigram);
+    }
+
+    /**
+     * Запрос, который Spring Data строил для findByTitleContainingIgnoreCase.
+     */
+    private List<Integer> containingIgnoreCase(String titlePart) {
+        return jdbcTemplate.queryForList("SELECT id FROM posts WHERE UPPER(title) LIKE UPPER(?)", Integer.class,
+                "%" + titlePart + "%");
+    }
+
+    private long measure(java.util.function.IntSupplier query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.getAsInt();
+        }
+        return (System.nanoTime() - start) / ITERATIONS / 1_000;
+    }
+
+    private void report(String name, long baselineMicros, long trigramMicros) {
+        System.out.printf("[%s] постов: %d, ContainingIgnoreCase: %d мкс, pg_trgm: %d мкс%n",
+                name, posts, baselineMicros, trigramMicros);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.blog.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.blog.storage.HotImageCache;
+import com.example.blog.storage.ImageStorage;
+
+/**
+ * Пропускная способность раздачи /uploads/** при одновременных клиентах:
+ * небольшие изображения (отдаются из {@link HotImageCache}), крупные
+ * (отдаются с диска через sendfile) и повторные запросы с If-None-Match (304).
+ *
+ * Запуск: ./gradlew benchmark --tests '*UploadsThroughputBenchmark'
+ * Параметры: -Dbenchmark.clients=50,200, -Dbenchmark.requests-per-client (по умолчанию 200).
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "blog.uploads.dir=build/benchmark-uploads" })
+class UploadsThroughputBenchmark {
+
+    private static final int SMALL_SIZE = 32 * 1024;
+    private static final int LARGE_SIZE = 4 * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    private final int requestsPerClient = Integer.getInteger("benchmark.requests-per-client", 200);
+
+    private final List<String> smallUrls = new ArrayList<>();
+    private final List<String> largeUrls = new ArrayList<>();
+
+    @BeforeAll
+    void storeImages() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            smallUrls.add(store(SMALL_SIZE));
+        }
+        for (int i = 0; i < 10; i++) {
+            largeUrls.add(store(LARGE_SIZE));
+        }
+        hotImageCache.clear();
+    }
+
+    @Test
+    void concurrentClients() throws Exception {
+        for (String clients : System.getProperty("benchmark.clients", "50,200").split(",")) {
+            int count = Integer.parseInt(clients.trim());
+            run("небольшие (" + SMALL_SIZE / 1024 + " КБ)", smallUrls, count, false);
+            run("крупные (" + LARGE_SIZE / 1024 / 1024 + " МБ)", largeUrls, count, false);
+            run("повторные с If-None-Match", smallUrls, count, true);
+        }
+        HotImageCache.Stats stats = hotImageCache.getStats();
+        System.out.printf("[uploads] кеш в памяти: %d файлов, %d КБ, попаданий %.1f%%%n",
+                stats.size(), stats.bytes() / 1024, stats.getHitRate() * 100);
+    }
+
+    private void run(String scenario, List<String> urls, int clients, boolean revalidate) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong bytes = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .executor(executor)
+                        .build()) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        String url = urls.get(ThreadLocalRandom.current().nextInt(urls.size()));
+                        request(client, url, revalidate, latencies, bytes, failed);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            double seconds = elapsed / 1e9;
+            System.out.printf("[uploads] %s, клиентов: %d, запросов: %d за %.1f с (%.0f запр/с, %.1f МБ/с), "
+                            + "p50: %.2f мс, p99: %.2f мс, ошибок: %d%n",
+                    scenario, clients, sorted.size(), seconds, sorted.size() / seconds,
+                    bytes.get() / seconds / 1024 / 1024,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), failed.get());
+        }
+    }
+
+    private void request(HttpClient client, String url, boolean revalidate, List<Long> latencies, AtomicLong bytes,
+            AtomicInteger failed) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + url))
+                .timeout(Duration.ofSeconds(60))
+                .GET();
+        if (revalidate) {
+            // ETag файла хранилища — хеш содержимого из имени
+            String name = url.substring(url.lastIndexOf('/') + 1);
+            builder.header("If-None-Match", "\"" + name.substring(0, name.indexOf('.')) + "\"");
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            int expected = revalidate ? 304 : 200;
+            if (response.statusCode() == expected) {
+                latencies.add(System.nanoTime() - start);
+                bytes.addAndGet(response.body().length);
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    private String store(int size) throws Exception {
+        byte[] content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        // сигнатура JPEG, чтобы файл сохранился с расширением .jpg
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        return imageStorage.store(new ByteArrayInputStream(content), "image.jpg").url();
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1)))) / 1e6;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.blog.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link ThreadModeBenchmark} в режиме виртуальных потоков (профиль virtual).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        ThreadModeBenchmark.COMMON_PROPERTIES,
+        "server.tomcat.accept-count=10000" })
+@ActiveProfiles("virtual")
+class VirtualThreadsBenchmark extends ThreadModeBenchmark {
+
+    @Override
+    String mode() {
+        return "виртуальные потоки";
+    }
+}
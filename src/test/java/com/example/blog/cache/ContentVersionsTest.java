@@ -0,0 +1,59 @@
+package com.example.blog.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.Order;
+
+import com.example.blog.event.PostChangedEvent;
+
+class ContentVersionsTest {
+
+    private final ContentVersions versions = new ContentVersions();
+
+    @Test
+    void likes_ChangePostEtagButNotFeedEtag() {
+        String feed = versions.feedEtag();
+        String post = versions.postEtag(1);
+
+        versions.onPostChanged(PostChangedEvent.likes(1));
+
+        assertEquals(feed, versions.feedEtag());
+        assertNotEquals(post, versions.postEtag(1));
+    }
+
+    @Test
+    void comment_ChangesFeedAndPostEtag() {
+        String feed = versions.feedEtag();
+        String post = versions.postEtag(1);
+        String other = versions.postEtag(2);
+
+        versions.onPostChanged(new PostChangedEvent(1, false));
+
+        assertNotEquals(feed, versions.feedEtag());
+        assertNotEquals(post, versions.postEtag(1));
+        assertEquals(other, versions.postEtag(2));
+    }
+
+    @Test
+    void delete_DropsPostVersionWithoutReusingOldEtag() {
+        String initial = versions.postEtag(1);
+        versions.onPostChanged(new PostChangedEvent(1, true));
+        assertEquals(1, versions.trackedPosts());
+
+        versions.onPostChanged(PostChangedEvent.deleted(1));
+
+        assertEquals(0, versions.trackedPosts());
+        assertNotEquals(initial, versions.postEtag(1));
+    }
+
+    @Test
+    void versionsChangeBeforePageCacheInvalidation() throws Exception {
+        Method bump = ContentVersions.class.getMethod("onPostChanged", PostChangedEvent.class);
+        Method invalidate = RenderedPageCache.class.getMethod("onPostChanged", PostChangedEvent.class);
+
+        assertTrue(bump.getAnnotation(Order.class).value() < invalidate.getAnnotation(Order.class).value());
+    }
+}
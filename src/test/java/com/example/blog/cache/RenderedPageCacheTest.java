@@ -0,0 +1,139 @@
+package com.example.blog.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.blog.event.PostChangedEvent;
+
+class RenderedPageCacheTest {
+
+    private static RenderedPageCache.CachedPage page(Integer... postIds) {
+        return new RenderedPageCache.CachedPage(new byte[] { 1 }, "text/html", null, Set.of(postIds));
+    }
+
+    @Test
+    void get_CountsHitsAndMisses() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        String key = RenderedPageCache.feedKey(null, 0, null, null, 10);
+
+        assertNull(cache.get(key));
+        cache.put(key, page(1, 2), cache.currentVersion());
+        assertNotNull(cache.get(key));
+
+        RenderedPageCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void put_EvictsBeyondMaxEntries() {
+        RenderedPageCache cache = new RenderedPageCache(2, Runnable::run);
+        long version = cache.currentVersion();
+        cache.put("a", page(1), version);
+        cache.put("b", page(2), version);
+        cache.put("c", page(3), version);
+
+        RenderedPageCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void onPostChanged_RemovesOnlyPagesShowingThePost() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        long version = cache.currentVersion();
+        String firstPage = RenderedPageCache.feedKey(null, 0, null, null, 2);
+        String secondPage = RenderedPageCache.feedKey(null, 1, null, null, 2);
+        cache.put(firstPage, page(4, 3), version);
+        cache.put(secondPage, page(2, 1), version);
+        cache.put(RenderedPageCache.postKey(3), page(3), version);
+        cache.put(RenderedPageCache.postKey(1), page(1), version);
+
+        cache.onPostChanged(new PostChangedEvent(3, false));
+
+        assertNull(cache.get(firstPage));
+        assertNull(cache.get(RenderedPageCache.postKey(3)));
+        assertNotNull(cache.get(secondPage));
+        assertNotNull(cache.get(RenderedPageCache.postKey(1)));
+    }
+
+    @Test
+    void onPostChanged_StructuralChangeRemovesAllFeedPages() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        long version = cache.currentVersion();
+        String feed = RenderedPageCache.feedKey("java", 0, null, null, 10);
+        cache.put(feed, page(1), version);
+        cache.put(RenderedPageCache.postKey(1), page(1), version);
+
+        cache.onPostChanged(new PostChangedEvent(5, true));
+
+        assertNull(cache.get(feed));
+        assertNotNull(cache.get(RenderedPageCache.postKey(1)));
+        assertEquals(1, cache.getStats().invalidations());
+    }
+
+    @Test
+    void put_SkipsPageRenderedBeforeInvalidation() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        long version = cache.currentVersion();
+
+        cache.invalidate(1, false); // пост изменился, пока страница отрисовывалась
+        cache.put(RenderedPageCache.postKey(1), page(1), version);
+
+        assertNull(cache.get(RenderedPageCache.postKey(1)));
+    }
+
+    @Test
+    void put_ChangeOfOtherPostDoesNotDropRender() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        long version = cache.currentVersion();
+
+        // лайк или комментарий к посту, которого нет на странице
+        cache.invalidate(7, false);
+        cache.put(RenderedPageCache.postKey(1), page(1), version);
+
+        assertNotNull(cache.get(RenderedPageCache.postKey(1)));
+    }
+
+    @Test
+    void put_StructuralChangeDropsAllRendersInProgress() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        long version = cache.currentVersion();
+
+        cache.onPostChanged(PostChangedEvent.deleted(9));
+        cache.put(RenderedPageCache.feedKey(null, 0, null, null, 10), page(1, 2), version);
+        cache.put(RenderedPageCache.postKey(9), page(9), version);
+
+        assertNull(cache.get(RenderedPageCache.feedKey(null, 0, null, null, 10)));
+        assertNull(cache.get(RenderedPageCache.postKey(9)));
+    }
+
+    @Test
+    void put_ReplacedPageReindexed() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        String feed = RenderedPageCache.feedKey(null, 0, null, null, 2);
+        cache.put(feed, page(4, 3), cache.currentVersion());
+        cache.put(feed, page(5, 4), cache.currentVersion());
+
+        cache.invalidate(3, false);
+        assertNotNull(cache.get(feed));
+
+        cache.invalidate(5, false);
+        assertNull(cache.get(feed));
+    }
+
+    @Test
+    void endpoint_ReadsStatsAndClears() {
+        RenderedPageCache cache = new RenderedPageCache(10);
+        PageCacheEndpoint endpoint = new PageCacheEndpoint(cache);
+        cache.put(RenderedPageCache.postKey(1), page(1), cache.currentVersion());
+
+        assertEquals(1, endpoint.stats().size());
+        assertEquals(0, endpoint.clear().size());
+        assertNull(cache.get(RenderedPageCache.postKey(1)));
+    }
+}
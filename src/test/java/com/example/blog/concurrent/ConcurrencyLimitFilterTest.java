@@ -0,0 +1,79 @@
+package com.example.blog.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void overLimit_Returns503AndReleasesPermitAfterRequest() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 50);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            inside.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        Thread first = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/posts"), new MockHttpServletResponse(), slowChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        // единственное место занято: второй запрос ждёт 50 мс и получает 503
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts"), rejected, new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+
+        release.countDown();
+        first.join();
+        assertEquals(1, filter.availablePermits());
+
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts"), accepted, new MockFilterChain());
+        assertEquals(200, accepted.getStatus());
+    }
+
+    @Test
+    void databaseBusy_Returns503InsteadOfError() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 50);
+        FilterChain busyChain = (req, res) -> {
+            throw new ServletException(new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                    new ConnectionBulkhead.DatabaseBusyException("busy")));
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts"), response, busyChain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(1, filter.availablePermits());
+
+        // прочие ошибки пробрасываются как есть
+        FilterChain failingChain = (req, res) -> {
+            throw new IllegalStateException("boom");
+        };
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/posts"),
+                new MockHttpServletResponse(), failingChain));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.blog.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionBulkheadTest {
+
+    @Test
+    void connectionsLimitedToPoolSize_PermitReturnedOnClose() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionBulkhead bulkhead = new ConnectionBulkhead(pool, 2, 20);
+
+        Connection first = bulkhead.getConnection();
+        Connection second = bulkhead.getConnection();
+        assertEquals(0, bulkhead.availablePermits());
+
+        // третий поток ждёт 20 мс и получает отказ, а не уходит ждать в пул
+        assertThrows(ConnectionBulkhead.DatabaseBusyException.class, bulkhead::getConnection);
+        verify(pool, times(2)).getConnection();
+
+        first.close();
+        first.close();
+        assertEquals(1, bulkhead.availablePermits());
+        bulkhead.getConnection().close();
+        second.close();
+        assertEquals(2, bulkhead.availablePermits());
+    }
+
+    @Test
+    void poolFailure_PermitReleased() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("down"));
+        ConnectionBulkhead bulkhead = new ConnectionBulkhead(pool, 1, 20);
+
+        assertThrows(SQLException.class, bulkhead::getConnection);
+
+        assertEquals(1, bulkhead.availablePermits());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.blog.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelQueriesTest {
+
+    private final ParallelQueries parallel = new ParallelQueries(true);
+
+    @Test
+    void join_RunsSubtasksConcurrentlyOnVirtualThreads() {
+        // обе подзадачи ждут друг друга: последовательно они бы не завершились
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            ParallelQueries.Subtask<Boolean> first = scope.fork(() -> {
+                bothStarted.countDown();
+                assertTrue(Thread.currentThread().isVirtual());
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            });
+            ParallelQueries.Subtask<Boolean> second = scope.fork(() -> {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            });
+            scope.join();
+
+            assertTrue(first.get());
+            assertTrue(second.get());
+        }
+    }
+
+    @Test
+    void join_FailureCancelsSiblingsAndPropagates() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("query failed");
+
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            scope.fork(() -> {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                slowStarted.await();
+                throw failure;
+            });
+
+            long start = System.nanoTime();
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, scope::join);
+            assertSame(failure, thrown);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+        // close() дожидается отменённых подзадач
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void get_BeforeJoin_Throws() {
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            ParallelQueries.Subtask<Integer> result = scope.fork(() -> 1);
+            assertThrows(IllegalStateException.class, result::get);
+        }
+    }
+
+    @Test
+    void disabled_RunsInCallerThread() {
+        Thread caller = Thread.currentThread();
+        try (ParallelQueries.Scope scope = new ParallelQueries(false).open()) {
+            ParallelQueries.Subtask<Thread> thread = scope.fork(Thread::currentThread);
+            scope.join();
+            assertSame(caller, thread.get());
+        }
+    }
+}
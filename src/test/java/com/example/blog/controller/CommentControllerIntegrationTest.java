@@ -53,6 +53,7 @@ class CommentControllerIntegrationTest {
         List<Comment> comments = commentRepository.findByPostId(post.getId());
         assertThat(comments).hasSize(1);
         assertThat(comments.get(0).getContent()).isEqualTo("Test comment content");
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getCommentCount()).isEqualTo(1);
     }
 
     @Test
@@ -76,13 +77,10 @@ class CommentControllerIntegrationTest {
 
     @Test
     void testDeleteComment() throws Exception {
-        Comment comment = new Comment();
-        comment.setPostId(post.getId());
-        comment.setAuthor("TestAuthor");
-        comment.setContent("To be deleted");
-        comment.setCreatedAt(LocalDateTime.now());
-
-        comment = commentRepository.save(comment);
+        mockMvc.perform(post("/posts/" + post.getId() + "/comments")
+                .param("content", "To be deleted")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED));
+        Comment comment = commentRepository.findByPostId(post.getId()).get(0);
 
         mockMvc.perform(post("/posts/" + post.getId() + "/comments/" + comment.getId() + "/delete"))
                 .andExpect(status().is3xxRedirection())
@@ -90,5 +88,6 @@ class CommentControllerIntegrationTest {
 
         boolean exists = commentRepository.findById(comment.getId()).isPresent();
         assertThat(exists).isFalse();
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getCommentCount()).isZero();
     }
 }
@@ -1,5 +1,7 @@
 package com.example.blog.controller;
 
+import com.example.blog.model.Comment;
+import com.example.blog.model.CommentPage;
 import com.example.blog.service.CommentService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,8 +13,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CommentController.class)
 class CommentControllerTest {
@@ -51,4 +57,34 @@ class CommentControllerTest {
 
         verify(commentService).deleteComment(5);
     }
+
+    @Test
+    @DisplayName("Следующая страница комментариев отдаётся HTML-фрагментом")
+    void testLoadComments_Fragment() throws Exception {
+        Comment comment = new Comment(8, 1, "anon", "Второй комментарий", LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(commentService.findPage(1, "2024-01-01T09:00_7", 50))
+                .thenReturn(new CommentPage(List.of(comment), null));
+
+        mockMvc.perform(get("/posts/1/comments").param("cursor", "2024-01-01T09:00_7"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Второй комментарий")))
+                .andExpect(content().string(org.hamcrest.Matchers.not(
+                        org.hamcrest.Matchers.containsString("data-next-cursor"))));
+    }
+
+    @Test
+    @DisplayName("Страница комментариев в JSON; неверный курсор — 400")
+    void testLoadComments_Json() throws Exception {
+        Comment comment = new Comment(7, 1, "anon", "Первый", LocalDateTime.of(2024, 1, 1, 9, 0));
+        when(commentService.findPage(1, null, 1)).thenReturn(new CommentPage(List.of(comment), "2024-01-01T09:00_7"));
+        when(commentService.findPage(1, "bad", 50)).thenThrow(new IllegalArgumentException("bad cursor"));
+
+        mockMvc.perform(get("/posts/1/comments").param("size", "1").accept("application/json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].content").value("Первый"))
+                .andExpect(jsonPath("$.nextCursor").value("2024-01-01T09:00_7"));
+
+        mockMvc.perform(get("/posts/1/comments").param("cursor", "bad").accept("application/json"))
+                .andExpect(status().isBadRequest());
+    }
 }
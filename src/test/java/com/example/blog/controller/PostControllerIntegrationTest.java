@@ -1,5 +1,7 @@
 package com.example.blog.controller;
 
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.jdbc.SqlAssertions;
 import com.example.blog.model.Post;
 import com.example.blog.repository.PostRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,9 +28,13 @@ class PostControllerIntegrationTest {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private RenderedPageCache pageCache;
+
     @BeforeEach
     void setUp() {
         postRepository.deleteAll(); // очищаем перед каждым тестом
+        pageCache.clear(); // deleteAll идёт в обход сервиса и не инвалидирует кеш страниц
     }
 
     @Test
@@ -75,4 +81,53 @@ class PostControllerIntegrationTest {
         boolean exists = postRepository.findById(saved.getId()).isPresent();
         assertThat(exists).isFalse();
     }
+
+    @Test
+    void testFeedPageIsCachedUntilPostChanges() throws Exception {
+        Post saved = postRepository.save(new Post(null, "Cached", "preview", null, "text", 0));
+
+        mockMvc.perform(get("/posts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Page-Cache", "MISS"));
+        mockMvc.perform(get("/posts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Page-Cache", "HIT"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Cached")));
+
+        mockMvc.perform(post("/posts/" + saved.getId() + "/edit")
+                .param("title", "Renamed")
+                .param("preview", "preview")
+                .param("text", "text")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/posts"))
+                .andExpect(header().string("X-Page-Cache", "MISS"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Renamed")));
+    }
+
+    @Test
+    void testFeedQueryCountDoesNotGrowWithPageSize() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            mockMvc.perform(post("/posts")
+                    .param("title", "Post " + i)
+                    .param("preview", "preview")
+                    .param("text", "text")
+                    .param("tags", i % 2 == 0 ? "spring,java" : "spring")
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        // кеш страниц очищается перед каждым запросом, чтобы запрос доходил до базы
+        SqlAssertions.assertStatementsIndependentOf("size", size -> {
+            pageCache.clear();
+            mockMvc.perform(get("/posts").param("size", String.valueOf(size)))
+                    .andExpect(status().isOk());
+        }, 5, 10, 25);
+        SqlAssertions.assertStatementsIndependentOf("size", size -> {
+            pageCache.clear();
+            mockMvc.perform(get("/posts").param("tag", "spring").param("size", String.valueOf(size)))
+                    .andExpect(status().isOk());
+        }, 5, 10, 25);
+    }
 }
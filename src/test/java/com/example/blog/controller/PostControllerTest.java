@@ -1,13 +1,23 @@
 package com.example.blog.controller;
 
+import com.example.blog.cache.ContentVersions;
+import com.example.blog.concurrent.ParallelQueries;
+import com.example.blog.event.PostChangedEvent;
+import com.example.blog.model.CommentPage;
 import com.example.blog.model.Post;
+import com.example.blog.model.PostPreview;
 import com.example.blog.model.Tag;
+import com.example.blog.service.CommentService;
 import com.example.blog.service.PostService;
+import com.example.blog.storage.ImageStorage;
+import com.example.blog.storage.ImageVariantService;
+import com.example.blog.storage.StoredImage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -17,25 +27,36 @@ import java.util.Map;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @WebMvcTest(PostController.class)
+@Import({ ContentVersions.class, ParallelQueries.class })
 class PostControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ContentVersions contentVersions;
+
     @MockBean
     private PostService postService;
 
+    @MockBean
+    private ImageStorage imageStorage;
+
+    @MockBean
+    private ImageVariantService imageVariantService;
+
     @Test
     @DisplayName("GET /posts — отображение списка постов")
     void listPosts_ReturnsPostListView() throws Exception {
-        Post post = new Post(1, "Заголовок", "Превью", "image.jpg", "Текст", 3);
-        Mockito.when(postService.findPaginated(0, 10, null)).thenReturn(List.of(post));
-        Mockito.when(postService.countPosts(null)).thenReturn(1);
+        PostPreview post = new PostPreview(1, "Заголовок", "Превью", "image.jpg", 3, 0, "Текст");
+        Mockito.when(postService.findPaginated(0, 10, List.of(), true)).thenReturn(List.of(post));
+        Mockito.when(postService.countPosts(List.of(), true)).thenReturn(1);
         Mockito.when(postService.getTagsForPosts(anyList())).thenReturn(Map.of(1, List.of()));
-        Mockito.when(postService.getCommentCountByPostId(1)).thenReturn(5);
+        Mockito.when(postService.getCommentCountsForPosts(anyList())).thenReturn(Map.of(1, 5));
 
         mockMvc.perform(get("/posts"))
                 .andExpect(status().isOk())
@@ -44,18 +65,100 @@ class PostControllerTest {
                         "total"));
     }
 
+    @Test
+    @DisplayName("GET /posts?before=50 — страница по курсору без OFFSET")
+    void listPosts_WithCursor_UsesKeysetPagination() throws Exception {
+        PostPreview p1 = new PostPreview(49, "Первый", "Превью", null, 0, 0, "Текст");
+        PostPreview p2 = new PostPreview(48, "Второй", "Превью", null, 0, 0, "Текст");
+        PostPreview p3 = new PostPreview(47, "Третий", "Превью", null, 0, 0, "Текст");
+        Mockito.when(postService.findPageBefore(50, 3, List.of(), true)).thenReturn(List.of(p1, p2, p3));
+        Mockito.when(postService.countPosts(List.of(), true)).thenReturn(100);
+
+        mockMvc.perform(get("/posts").param("before", "50").param("size", "2").param("page", "3"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("posts"))
+                .andExpect(model().attribute("posts", List.of(p1, p2)))
+                .andExpect(model().attribute("currentPage", 3))
+                .andExpect(model().attribute("prevCursor", 49))
+                .andExpect(model().attribute("nextCursor", 48));
+
+        Mockito.verify(postService, Mockito.never()).findPaginated(anyInt(), anyInt(), anyList(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /posts?tag=java&tag=spring,sql&mode=any — фильтрация по нескольким тегам")
+    void listPosts_MultipleTags_PassesTagsAndMode() throws Exception {
+        List<String> tags = List.of("java", "spring", "sql");
+        PostPreview post = new PostPreview(7, "Заголовок", "Превью", null, 0, 0, "Текст");
+        Mockito.when(postService.findPaginated(0, 10, tags, false)).thenReturn(List.of(post));
+        Mockito.when(postService.countPosts(tags, false)).thenReturn(1);
+
+        mockMvc.perform(get("/posts").param("tag", "java", "spring, sql").param("mode", "any"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("posts", List.of(post)))
+                .andExpect(model().attribute("selectedTag", "java, spring, sql"))
+                .andExpect(model().attribute("mode", "any"))
+                .andExpect(model().attribute("total", 1));
+    }
+
     @Test
     @DisplayName("GET /posts/1 — отображение отдельного поста")
     void viewPost_ExistingId_ReturnsPostView() throws Exception {
         Post post = new Post(1, "Заголовок", "Превью", "image.jpg", "Текст", 2);
         Mockito.when(postService.findById(1)).thenReturn(post);
         Mockito.when(postService.findTagsByPostId(1)).thenReturn(List.of(new Tag(1, "Java")));
-        Mockito.when(postService.findCommentsByPostId(1)).thenReturn(List.of());
+        Mockito.when(postService.findCommentPage(1, null, CommentService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new CommentPage(List.of(), "2024-01-01T10:00_7"));
 
         mockMvc.perform(get("/posts/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("post"))
-                .andExpect(model().attributeExists("post", "tags", "comments", "isNew"));
+                .andExpect(model().attributeExists("post", "tags", "comments", "isNew"))
+                .andExpect(model().attribute("nextCursor", "2024-01-01T10:00_7"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Показать ещё")));
+    }
+
+    @Test
+    @DisplayName("GET /posts/1 — пути копий в srcset экранируются (старые имена файлов с пробелами)")
+    void viewPost_LegacyImageName_SrcsetEncoded() throws Exception {
+        Post post = new Post(1, "Заголовок", "Превью", "/uploads/0b1c_my photo.jpg", "Текст", 0);
+        Mockito.when(postService.findById(1)).thenReturn(post);
+        Mockito.when(postService.findTagsByPostId(1)).thenReturn(List.of());
+        Mockito.when(postService.findCommentPage(1, null, CommentService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new CommentPage(List.of(), null));
+
+        mockMvc.perform(get("/posts/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString(
+                        "/uploads/variants/320/0b1c_my%20photo.jpg 320w, /uploads/variants/640/0b1c_my%20photo.jpg 640w")));
+    }
+
+    @Test
+    @DisplayName("GET /posts/1 с актуальным If-None-Match — 304 без обращения к сервису")
+    void viewPost_MatchingEtag_NotModified() throws Exception {
+        String etag = contentVersions.postEtag(1);
+
+        mockMvc.perform(get("/posts/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        Mockito.verifyNoInteractions(postService);
+    }
+
+    @Test
+    @DisplayName("GET /posts с устаревшим If-None-Match — полный ответ с новым ETag")
+    void listPosts_StaleEtag_RendersPage() throws Exception {
+        String staleEtag = contentVersions.feedEtag();
+        contentVersions.onPostChanged(new PostChangedEvent(1, false));
+        Mockito.when(postService.findPaginated(0, 10, List.of(), true)).thenReturn(List.of());
+
+        mockMvc.perform(get("/posts").header("If-None-Match", staleEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", contentVersions.feedEtag()));
+
+        mockMvc.perform(get("/posts").header("If-None-Match", contentVersions.feedEtag()))
+                .andExpect(status().isNotModified());
+        Mockito.verify(postService, Mockito.times(1)).findPaginated(0, 10, List.of(), true);
     }
 
     @Test
@@ -129,4 +232,46 @@ class PostControllerTest {
 
         Mockito.verify(postService).delete(1);
     }
+
+    @Test
+    @DisplayName("POST /posts/1/like — лайк без пересохранения поста")
+    void likePost_CountsLikeAndRedirects() throws Exception {
+        mockMvc.perform(post("/posts/1/like").param("like", "true"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/posts/1"));
+
+        Mockito.verify(postService).like(1, true);
+        Mockito.verify(postService, Mockito.never()).save(any(Post.class));
+        Mockito.verify(postService, Mockito.never()).save(any(Post.class), anyList());
+    }
+
+    @Test
+    @DisplayName("POST /posts/uploadImage — файл сохраняется в хранилище, возвращается его URL, запускается создание копий")
+    void uploadImage_StoresFileAndReturnsUrl() throws Exception {
+        String url = "/uploads/ab/cd/abcd.png";
+        Mockito.when(imageStorage.store(any(), eq("cat.png")))
+                .thenReturn(new StoredImage("abcd", url, 3, false));
+
+        mockMvc.perform(multipart("/posts/uploadImage")
+                        .file(new org.springframework.mock.web.MockMultipartFile("file", "cat.png", "image/png",
+                                new byte[] { 1, 2, 3 })))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(url));
+
+        Mockito.verify(imageVariantService).generateAll(url);
+    }
+
+    @Test
+    @DisplayName("POST /posts/uploadImage — файл не изображение: 400, копии не создаются")
+    void uploadImage_NotAnImage_BadRequest() throws Exception {
+        Mockito.when(imageStorage.store(any(), eq("page.html")))
+                .thenThrow(new IllegalArgumentException("Файл не является изображением"));
+
+        mockMvc.perform(multipart("/posts/uploadImage")
+                        .file(new org.springframework.mock.web.MockMultipartFile("file", "page.html", "text/html",
+                                "<script>".getBytes())))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(imageVariantService);
+    }
 }
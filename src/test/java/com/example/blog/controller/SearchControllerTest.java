@@ -0,0 +1,71 @@
+package com.example.blog.controller;
+
+import com.example.blog.model.SearchHit;
+import com.example.blog.service.SearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SearchController.class)
+class SearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SearchService searchService;
+
+    @Test
+    @DisplayName("GET /posts/search?q=... — результаты с подсветкой и признаком следующей страницы")
+    void search_ReturnsHitsAndNextPageFlag() throws Exception {
+        SearchHit first = new SearchHit(1, "Про Spring", "prev", null, 0, 0, 0.9, "про <mark>Spring</mark>");
+        SearchHit second = new SearchHit(2, "Ещё Spring", "prev", null, 0, 0, 0.5, "<mark>Spring</mark>");
+        Mockito.when(searchService.search("spring", 2, 0)).thenReturn(List.of(first, second));
+
+        mockMvc.perform(get("/posts/search").param("q", "spring").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("search"))
+                .andExpect(model().attribute("hits", List.of(first)))
+                .andExpect(model().attribute("hasNext", true))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("<mark>Spring</mark>")));
+    }
+
+    @Test
+    @DisplayName("GET /posts/search?page=1 — смещение считается по размеру страницы, а не по запрошенному лимиту")
+    void search_SecondPage_OffsetIsPageTimesSize() throws Exception {
+        SearchHit eleventh = new SearchHit(11, "Spring 11", "prev", null, 0, 0, 0.3, "<mark>Spring</mark>");
+        Mockito.when(searchService.search("spring", 11, 10)).thenReturn(List.of(eleventh));
+
+        mockMvc.perform(get("/posts/search").param("q", "spring").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("hits", List.of(eleventh)))
+                .andExpect(model().attribute("currentPage", 1))
+                .andExpect(model().attribute("hasNext", false));
+
+        Mockito.verify(searchService).search("spring", 11, 10);
+    }
+
+    @Test
+    @DisplayName("GET /posts/search?mode=title — поиск по заголовку с ограничением числа результатов")
+    void search_TitleMode_UsesTrigramSearch() throws Exception {
+        SearchHit hit = new SearchHit(3, "Postgres", "prev", null, 0, 0, 0.8, "prev");
+        Mockito.when(searchService.searchTitles("postgress", SearchService.MAX_TITLE_RESULTS)).thenReturn(List.of(hit));
+
+        mockMvc.perform(get("/posts/search").param("q", "postgress").param("mode", "title"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("hits", List.of(hit)))
+                .andExpect(model().attribute("mode", "title"))
+                .andExpect(model().attribute("hasNext", false));
+
+        Mockito.verify(searchService, Mockito.never()).search(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+}
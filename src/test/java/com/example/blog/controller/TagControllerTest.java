@@ -0,0 +1,51 @@
+package com.example.blog.controller;
+
+import com.example.blog.model.TagCount;
+import com.example.blog.service.PostCounterService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TagController.class)
+class TagControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PostCounterService postCounterService;
+
+    @Test
+    @DisplayName("GET /tags — облако тегов")
+    void tagCloud_ReturnsTagsView() throws Exception {
+        List<TagCount> tags = List.of(new TagCount("java", 8), new TagCount("spring", 2));
+        Mockito.when(postCounterService.getTopTags(null, 50)).thenReturn(tags);
+
+        mockMvc.perform(get("/tags"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("tags"))
+                .andExpect(model().attribute("tags", tags))
+                .andExpect(model().attribute("maxCount", 8));
+    }
+
+    @Test
+    @DisplayName("GET /tags/counts?prefix=sp&limit=1000 — JSON, лимит ограничен")
+    void tagCounts_ReturnsJsonWithCappedLimit() throws Exception {
+        Mockito.when(postCounterService.getTopTags("sp", TagController.MAX_LIMIT))
+                .thenReturn(List.of(new TagCount("spring", 2)));
+
+        mockMvc.perform(get("/tags/counts").param("prefix", "sp").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("spring"))
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+}
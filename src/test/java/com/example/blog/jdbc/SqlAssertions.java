@@ -0,0 +1,71 @@
+package com.example.blog.jdbc;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Проверки количества SQL-запросов для интеграционных тестов
+ * (нужен {@link CountingDataSource}, который подключается SqlStatisticsConfig).
+ *
+ * <pre>
+ * SqlAssertions.assertStatementsIndependentOf("size",
+ *         size -&gt; mockMvc.perform(get("/posts").param("size", String.valueOf(size))), 5, 20);
+ * </pre>
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    /**
+     * Запрос, зависящий от параметра (например, размера страницы).
+     */
+    @FunctionalInterface
+    public interface ParameterizedAction {
+
+        void run(int value) throws Exception;
+    }
+
+    /**
+     * Проверяет, что действие выполняет не больше max запросов к базе.
+     *
+     * @return статистика действия
+     */
+    public static SqlStatistics.Snapshot assertMaxStatements(int max, SqlStatistics.ThrowingRunnable action)
+            throws Exception {
+        SqlStatistics.Snapshot snapshot = SqlStatistics.measure(action);
+        if (snapshot.statements() > max) {
+            fail("Ожидалось не больше " + max + " SQL-запросов, выполнено " + snapshot.statements()
+                    + ": " + snapshot.statementsBySql());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Проверяет, что количество запросов к базе не зависит от параметра (нет N+1).
+     * Перед замерами действие выполняется один раз с первым значением —
+     * ленивые инициализации (счётчики, индексы) не попадают в замер.
+     *
+     * @param parameter имя параметра для сообщения об ошибке
+     * @param action    действие
+     * @param values    значения параметра (не меньше двух)
+     */
+    public static void assertStatementsIndependentOf(String parameter, ParameterizedAction action, int... values)
+            throws Exception {
+        action.run(values[0]);
+        Map<Integer, SqlStatistics.Snapshot> snapshots = new LinkedHashMap<>();
+        for (int value : values) {
+            snapshots.put(value, SqlStatistics.measure(() -> action.run(value)));
+        }
+        long expected = snapshots.get(values[0]).statements();
+        if (snapshots.values().stream().anyMatch(snapshot -> snapshot.statements() != expected)) {
+            StringBuilder message = new StringBuilder("Количество SQL-запросов зависит от " + parameter + ":");
+            snapshots.forEach((value, snapshot) -> message.append(System.lineSeparator())
+                    .append("  ").append(parameter).append('=').append(value).append(": ")
+                    .append(snapshot.statements()).append(" запросов, ").append(snapshot.statementsBySql()));
+            fail(message.toString());
+        }
+    }
+}
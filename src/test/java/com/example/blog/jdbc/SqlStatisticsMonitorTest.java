@@ -0,0 +1,61 @@
+package com.example.blog.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class SqlStatisticsMonitorTest {
+
+    private final SqlStatisticsMonitor monitor = new SqlStatisticsMonitor(10, 3);
+
+    @Test
+    void requestCompleted_FlagsTooManyAndRepeatedStatements() {
+        assertFalse(monitor.requestCompleted("GET /posts", "/posts",
+                snapshot(5, Map.of("SELECT 1", 3L))));
+        assertTrue(monitor.requestCompleted("GET /posts", "/posts?size=50",
+                snapshot(11, Map.of("SELECT 1", 1L))));
+        assertTrue(monitor.requestCompleted("GET /posts/{id}", "/posts/7",
+                snapshot(6, Map.of("SELECT name FROM tags WHERE id = ?", 5L))));
+
+        SqlStatisticsMonitor.Report report = monitor.getReport();
+        assertEquals(2, report.offenders().size());
+        // последние нарушители — первыми
+        assertEquals("SELECT name FROM tags WHERE id = ?", report.offenders().get(0).repeatedSql());
+        assertEquals(5, report.offenders().get(0).repeats());
+        assertNull(report.offenders().get(1).repeatedSql());
+
+        SqlStatisticsMonitor.EndpointStats feed = report.endpoints().stream()
+                .filter(stats -> stats.endpoint().equals("GET /posts")).findFirst().orElseThrow();
+        assertEquals(2, feed.requests());
+        assertEquals(16, feed.statements());
+        assertEquals(11, feed.maxStatements());
+        assertEquals(1, feed.offenders());
+    }
+
+    @Test
+    void endpoint_ReadsAndResetsReport() {
+        SqlStatisticsEndpoint endpoint = new SqlStatisticsEndpoint(monitor);
+        monitor.requestCompleted("GET /posts", "/posts", snapshot(11, Map.of()));
+
+        assertEquals(1, endpoint.report().offenders().size());
+        assertTrue(endpoint.reset().offenders().isEmpty());
+        assertTrue(monitor.getReport().endpoints().isEmpty());
+    }
+
+    @Test
+    void offenders_KeepOnlyRecent() {
+        for (int i = 0; i < SqlStatisticsMonitor.MAX_OFFENDERS + 5; i++) {
+            monitor.requestCompleted("GET /posts", "/posts?page=" + i, snapshot(20, Map.of()));
+        }
+
+        SqlStatisticsMonitor.Report report = monitor.getReport();
+        assertEquals(SqlStatisticsMonitor.MAX_OFFENDERS, report.offenders().size());
+        assertEquals("/posts?page=" + (SqlStatisticsMonitor.MAX_OFFENDERS + 4), report.offenders().get(0).uri());
+    }
+
+    private static SqlStatistics.Snapshot snapshot(long statements, Map<String, Long> bySql) {
+        return new SqlStatistics.Snapshot(statements, statements, 1_000_000, bySql);
+    }
+}
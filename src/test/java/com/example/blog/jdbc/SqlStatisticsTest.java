@@ -0,0 +1,110 @@
+package com.example.blog.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlStatisticsTest {
+
+    private static final String SELECT = "SELECT id FROM posts WHERE id = ?";
+    private static final String UPDATE = "UPDATE posts SET likes = ? WHERE id = ?";
+
+    private CountingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenAnswer(invocation -> connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            PreparedStatement statement = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.next()).thenReturn(true, true, false);
+            when(statement.executeQuery()).thenReturn(rs);
+            when(statement.executeUpdate()).thenReturn(3);
+            return statement;
+        });
+        dataSource = new CountingDataSource(target);
+    }
+
+    @Test
+    void measure_CountsStatementsRowsAndRepeats() throws Exception {
+        SqlStatistics.Snapshot snapshot = SqlStatistics.measure(() -> {
+            query(SELECT);
+            query(SELECT);
+            update(UPDATE);
+        });
+
+        assertEquals(3, snapshot.statements());
+        assertEquals(2 + 2 + 3, snapshot.rows());
+        assertEquals(2L, snapshot.statementsBySql().get(SELECT));
+        assertEquals(SELECT, snapshot.mostRepeated().getKey());
+    }
+
+    @Test
+    void nestedRecordings_InnerStatementsCountedInOuter() throws Exception {
+        try (SqlStatistics.Recording outer = SqlStatistics.start()) {
+            query(SELECT);
+            SqlStatistics.Snapshot inner = SqlStatistics.measure(() -> query(SELECT));
+
+            assertEquals(1, inner.statements());
+            assertEquals(2, outer.snapshot().statements());
+        }
+        assertFalse(SqlStatistics.isActive());
+    }
+
+    @Test
+    void withoutRecording_NothingCounted() throws Exception {
+        query(SELECT);
+
+        assertEquals(0, SqlStatistics.measure(() -> { }).statements());
+    }
+
+    @Test
+    void propagate_CountsStatementsOfOtherThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SqlStatistics.Snapshot snapshot = SqlStatistics.measure(() -> {
+                Callable<Object> task = SqlStatistics.propagate(() -> {
+                    query(SELECT);
+                    return null;
+                });
+                executor.submit(task).get();
+                // без переноса запрос другого потока не учитывается
+                executor.submit(() -> {
+                    query(SELECT);
+                    return null;
+                }).get();
+            });
+
+            assertEquals(1, snapshot.statements());
+        }
+    }
+
+    private void query(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rs.getInt(1);
+            }
+        }
+    }
+
+    private void update(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        }
+    }
+}
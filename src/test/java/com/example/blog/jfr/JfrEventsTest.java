@@ -0,0 +1,153 @@
+package com.example.blog.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.blog.jdbc.CountingDataSource;
+import com.example.blog.metrics.TemplateRenderTimingInterceptor;
+
+class JfrEventsTest {
+
+    private Recording recording;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recording = new Recording();
+        recording.enable(HttpRequestEvent.class).withThreshold(Duration.ZERO);
+        recording.enable(TemplateRenderEvent.class).withThreshold(Duration.ZERO);
+        recording.enable(SqlStatementEvent.class).withThreshold(Duration.ZERO);
+        recording.start();
+
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenAnswer(invocation -> connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            PreparedStatement statement = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.next()).thenReturn(true, true, false);
+            when(statement.executeQuery()).thenReturn(rs);
+            when(statement.executeUpdate()).thenReturn(3);
+            return statement;
+        });
+        dataSource = new CountingDataSource(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void requestTemplateAndSqlEvents_ShareRequestId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts/7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        TemplateRenderTimingInterceptor interceptor = new TemplateRenderTimingInterceptor(new SimpleMeterRegistry());
+
+        new RequestEventFilter().doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                try (Connection connection = dataSource.getConnection()) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "SELECT * FROM comments WHERE post_id IN (?, ?, ?)");
+                            ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            // чтение строк
+                        }
+                    }
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "UPDATE posts SET likes = likes + 1 WHERE id = ?")) {
+                        statement.executeUpdate();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                interceptor.postHandle(request, response, new Object(), new ModelAndView("post"));
+                interceptor.afterCompletion(request, response, new Object(), null);
+            }
+        });
+
+        String requestId = response.getHeader(RequestEventFilter.REQUEST_ID_HEADER);
+        assertNotNull(requestId);
+        assertNull(RequestIds.current());
+
+        List<RecordedEvent> events = events();
+        RecordedEvent http = single(events, HttpRequestEvent.NAME);
+        assertEquals(requestId, http.getString("requestId"));
+        assertEquals("/posts/7", http.getString("uri"));
+        assertEquals(200, http.getInt("status"));
+
+        RecordedEvent template = single(events, TemplateRenderEvent.NAME);
+        assertEquals("post", template.getString("template"));
+        assertEquals(requestId, template.getString("requestId"));
+
+        List<RecordedEvent> sql = events.stream().filter(e -> isType(e, SqlStatementEvent.NAME)).toList();
+        assertEquals(2, sql.size());
+        assertEquals("SELECT * FROM comments WHERE post_id IN (?...)", sql.get(0).getString("sql"));
+        assertEquals(2, sql.get(0).getLong("rows"));
+        assertEquals("UPDATE posts SET likes = likes + ? WHERE id = ?", sql.get(1).getString("sql"));
+        assertEquals(3, sql.get(1).getLong("rows"));
+        sql.forEach(e -> assertEquals(requestId, e.getString("requestId")));
+    }
+
+    @Test
+    void incomingRequestId_IsReused() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts");
+        request.addHeader(RequestEventFilter.REQUEST_ID_HEADER, "lb-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new RequestEventFilter().doFilter(request, response, new MockFilterChain());
+
+        assertEquals("lb-123", response.getHeader(RequestEventFilter.REQUEST_ID_HEADER));
+        assertEquals("lb-123", single(events(), HttpRequestEvent.NAME).getString("requestId"));
+    }
+
+    private List<RecordedEvent> events() throws Exception {
+        recording.stop();
+        Path file = Files.createTempFile("blog-events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("blog."))
+                    .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> isType(e, name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private static boolean isType(RecordedEvent event, String name) {
+        return event.getEventType().getName().equals(name);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.blog.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SqlShapeTest {
+
+    @Test
+    void normalize_ReplacesLiteralsAndCollapsesLists() {
+        assertEquals("SELECT * FROM posts WHERE id = ? AND title = ?",
+                SqlShape.normalize("SELECT *\n  FROM posts WHERE id = 42 AND title = 'it''s'"));
+        assertEquals("SELECT name FROM tags WHERE id IN (?...)",
+                SqlShape.normalize("SELECT name FROM tags WHERE id IN (?, ?,?)"));
+        assertEquals("SELECT post_tags2.tag_id FROM post_tags2",
+                SqlShape.normalize("SELECT post_tags2.tag_id FROM post_tags2"));
+    }
+
+    @Test
+    void of_LongStatementsAreTruncated() {
+        String shape = SqlShape.of("SELECT " + "x,".repeat(SqlShape.MAX_LENGTH) + "y FROM t");
+
+        assertEquals(SqlShape.MAX_LENGTH + 3, shape.length());
+        assertTrue(shape.endsWith("..."));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.blog.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Генератор нагрузки с открытой моделью поступления запросов.
+ *
+ * Запросы отправляются с заданной интенсивностью (пуассоновский поток) независимо
+ * от того, успел ли сервер ответить на предыдущие: так ведут себя независимые
+ * пользователи, и очередь на сервере видна в задержках. Задержка отсчитывается
+ * от запланированного момента отправки, а не от фактического, поэтому отставание
+ * самого генератора не скрывает задержки сервера (coordinated omission).
+ *
+ * Каждая операция выбирается случайно с заданным весом; задержки по операциям
+ * собираются в гистограммы HdrHistogram.
+ */
+class LoadGenerator {
+
+    /**
+     * Вид запроса в смеси нагрузки.
+     *
+     * @param name    имя для отчёта
+     * @param weight  относительная доля в смеси
+     * @param request построитель запроса (получает генератор случайных чисел потока)
+     */
+    record Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    /**
+     * Результаты одной операции.
+     */
+    static final class Stats {
+
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder errors = new LongAdder();
+
+        Histogram getLatencies() {
+            return latencies;
+        }
+
+        long getErrors() {
+            return errors.sum();
+        }
+    }
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder notSent = new LongAdder();
+
+    /**
+     * @param operations  смесь операций
+     * @param maxInFlight предел одновременно ожидающих ответа запросов; сверх него
+     *                    запросы не отправляются и учитываются отдельно
+     */
+    LoadGenerator(List<Operation> operations, int maxInFlight) {
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.maxInFlight = maxInFlight;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Подаёт нагрузку заданной интенсивности и ждёт ответов на все отправленные запросы.
+     *
+     * @param ratePerSecond средняя интенсивность, запросов в секунду
+     * @param duration      длительность подачи нагрузки
+     * @return результаты по операциям в порядке смеси
+     */
+    Map<String, Stats> run(double ratePerSecond, Duration duration) throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        operations.forEach(operation -> stats.put(operation.name(), new Stats()));
+        notSent.reset();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double meanIntervalNanos = 1e9 / ratePerSecond;
+        long scheduled = start;
+        while (scheduled < end) {
+            long now = System.nanoTime();
+            if (scheduled > now) {
+                LockSupport.parkNanos(scheduled - now);
+            }
+            Operation operation = pick();
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                notSent.increment();
+            } else {
+                long intendedStart = scheduled;
+                executor.execute(() -> send(operation, intendedStart, stats.get(operation.name())));
+            }
+            // экспоненциальные интервалы между запросами — пуассоновский поток
+            scheduled += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+        }
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    /**
+     * @return запросы, не отправленные из-за предела одновременных запросов, в последнем прогоне
+     */
+    long getNotSent() {
+        return notSent.sum();
+    }
+
+    void close() {
+        client.close();
+        executor.close();
+    }
+
+    private void send(Operation operation, long intendedStart, Stats stats) {
+        try {
+            HttpResponse<Void> response = client.send(operation.request().apply(ThreadLocalRandom.current()),
+                    HttpResponse.BodyHandlers.discarding());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            if (response.statusCode() < 400) {
+                stats.latencies.recordValue(Math.min(micros, stats.latencies.getHighestTrackableValue()));
+            } else {
+                stats.errors.increment();
+            }
+        } catch (Exception e) {
+            stats.errors.increment();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.blog.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.blog.service.PostCounterService;
+import com.example.blog.service.TagPostingIndex;
+
+/**
+ * Нагрузочный тест: приложение на локальной базе под смешанной нагрузкой
+ * чтения и записи по эндпоинтам PostController и CommentController.
+ *
+ * Для каждой интенсивности из loadtest.rate сначала подаётся разогревающая нагрузка,
+ * затем измерительная; печатаются пропускная способность и процентили задержки
+ * (HdrHistogram) по каждому эндпоинту. Сеть нужна только до localhost.
+ *
+ * Запуск: ./gradlew loadTest
+ * Параметры (-D...):
+ * <ul>
+ * <li>loadtest.posts — число постов в базе (по умолчанию 10 000);</li>
+ * <li>loadtest.rate — интенсивности, запросов в секунду (по умолчанию 100,200,400);</li>
+ * <li>loadtest.duration / loadtest.warmup — длительность замера и разогрева в секундах (30 / 10);</li>
+ * <li>loadtest.mix — доли операций, по умолчанию
+ * feed=40,feed-tag=10,post=30,comments=5,add-comment=10,like=5;</li>
+ * <li>loadtest.page-cache — кеш отрисованных страниц (по умолчанию true, как в приложении);</li>
+ * <li>loadtest.max-in-flight — предел ожидающих ответа запросов (10 000).</li>
+ * </ul>
+ */
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTest {
+
+    private static final String DEFAULT_MIX = "feed=40,feed-tag=10,post=30,comments=5,add-comment=10,like=5";
+    private static final int TAGS = 200;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("blog.page-cache.enabled", () -> System.getProperty("loadtest.page-cache", "true"));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private TagPostingIndex tagPostingIndex;
+
+    private final int posts = Integer.getInteger("loadtest.posts", 10_000);
+
+    @BeforeAll
+    void fillDatabase() {
+        jdbcTemplate.update("TRUNCATE posts, tags RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("""
+                INSERT INTO posts (title, preview, text, likes)
+                SELECT 'Пост ' || i, 'превью ' || i, repeat('текст поста ' || i || ' ', 50), i % 50
+                FROM generate_series(1, ?) AS i
+                """, posts);
+        jdbcTemplate.update("INSERT INTO tags (name) SELECT 'tag-' || i FROM generate_series(1, ?) AS i", TAGS);
+        jdbcTemplate.update("""
+                INSERT INTO post_tags (post_id, tag_id)
+                SELECT DISTINCT p.id, t.tag_id
+                FROM posts p
+                CROSS JOIN LATERAL (VALUES (1 + p.id % 10), (11 + p.id % (? - 10))) AS t(tag_id)
+                """, TAGS);
+        jdbcTemplate.update("""
+                INSERT INTO comments (post_id, author, content)
+                SELECT p.id, 'Автор', 'Комментарий ' || c FROM posts p CROSS JOIN generate_series(1, 5) AS c
+                """);
+        jdbcTemplate.update("UPDATE posts SET comment_count = 5");
+        jdbcTemplate.execute("ANALYZE");
+        postCounterService.reconcile();
+        tagPostingIndex.rebuild();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("TRUNCATE posts, tags RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void mixedLoad() throws Exception {
+        List<LoadGenerator.Operation> mix = mix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        LoadGenerator generator = new LoadGenerator(mix, Integer.getInteger("loadtest.max-in-flight", 10_000));
+        try {
+            for (String rate : System.getProperty("loadtest.rate", "100,200,400").split(",")) {
+                double ratePerSecond = Double.parseDouble(rate.trim());
+                generator.run(ratePerSecond, warmup);
+                Map<String, LoadGenerator.Stats> stats = generator.run(ratePerSecond, duration);
+                report(ratePerSecond, duration, stats, generator.getNotSent());
+            }
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Разбирает смесь вида "feed=40,post=30".
+     */
+    private List<LoadGenerator.Operation> mix(String spec) {
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> requests = Map.of(
+                "feed", random -> get("/posts?page=" + random.nextInt(Math.max(1, posts / 10 / 10))),
+                "feed-tag", random -> get("/posts?tag=tag-" + (1 + random.nextInt(TAGS))),
+                "post", random -> get("/posts/" + postId(random)),
+                "comments", random -> HttpRequest.newBuilder(uri("/posts/" + postId(random) + "/comments"))
+                        .header("Accept", "application/json").GET().build(),
+                "add-comment", random -> post("/posts/" + postId(random) + "/comments",
+                        "content=" + URLEncoder.encode("Комментарий нагрузочного теста", StandardCharsets.UTF_8)),
+                "like", random -> post("/posts/" + postId(random) + "/like", "like=" + random.nextBoolean()));
+
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] nameAndWeight = part.trim().split("=");
+            Function<ThreadLocalRandom, HttpRequest> request = requests.get(nameAndWeight[0]);
+            if (request == null || nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Неизвестная операция в loadtest.mix: " + part
+                        + " (доступны " + requests.keySet() + ")");
+            }
+            int weight = Integer.parseInt(nameAndWeight[1]);
+            if (weight > 0) {
+                operations.add(new LoadGenerator.Operation(nameAndWeight[0], weight, request));
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Пустая смесь loadtest.mix: " + spec);
+        }
+        return operations;
+    }
+
+    private int postId(ThreadLocalRandom random) {
+        // треть обращений — к 1% самых новых постов, как у ленты с главной страницы
+        return (random.nextInt(3) == 0)
+                ? posts - random.nextInt(Math.max(1, posts / 100))
+                : 1 + random.nextInt(posts);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void report(double rate, Duration duration, Map<String, LoadGenerator.Stats> stats,
+            long notSent) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%n[loadtest] интенсивность %.0f запр/с, %d с, не отправлено (предел одновременных): %d%n",
+                rate, duration.toSeconds(), notSent);
+        System.out.printf("%-12s %8s %9s %9s %9s %9s %9s %9s %7s%n",
+                "эндпоинт", "запросов", "запр/с", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс", "ошибок");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<String, LoadGenerator.Stats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().getLatencies();
+            total.add(latencies);
+            totalErrors += entry.getValue().getErrors();
+            printRow(entry.getKey(), latencies, seconds, entry.getValue().getErrors());
+        }
+        printRow("всего", total, seconds, totalErrors);
+    }
+
+    private static void printRow(String name, Histogram latencies, double seconds, long errors) {
+        System.out.printf("%-12s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                name, latencies.getTotalCount(), latencies.getTotalCount() / seconds,
+                millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+                latencies.getMaxValue() / 1000.0, errors);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.blog.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import com.example.blog.cache.RenderedPageCache;
+import com.example.blog.storage.HotImageCache;
+
+class CacheMetricsTest {
+
+    @Test
+    void pageCacheHitsAndMissesAreExposed() {
+        RenderedPageCache pageCache = new RenderedPageCache(10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CacheMetrics(pageCache, new HotImageCache(1024, 128)).bindTo(registry);
+
+        pageCache.put("feed|", new RenderedPageCache.CachedPage(new byte[0], "text/html", null, Set.of()),
+                pageCache.currentVersion());
+        pageCache.get("feed|");
+        pageCache.get("feed|");
+        pageCache.get("missing");
+
+        assertEquals(2.0, registry.get("blog.cache.requests").tags("cache", "pages", "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("blog.cache.requests").tags("cache", "pages", "result", "miss")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("blog.cache.size").tag("cache", "pages").gauge().value());
+        assertEquals(2.0 / 3, registry.get("blog.cache.hit.ratio").tag("cache", "pages").gauge().value(), 1e-9);
+        assertEquals(0.0, registry.get("blog.cache.bytes").tag("cache", "images").gauge().value());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.blog.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusExposesServiceTemplatePoolAndCacheMetrics() throws Exception {
+        mockMvc.perform(get("/posts")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("blog_service_seconds_bucket")))
+                .andExpect(content().string(containsString("class=\"com.example.blog.service.PostService\"")))
+                .andExpect(content().string(containsString("blog_template_render_seconds_bucket")))
+                .andExpect(content().string(containsString("template=\"posts\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("blog_cache_requests_total")));
+    }
+
+    @Test
+    void sqlStatisticsNotExposedOnPublicPort() throws Exception {
+        mockMvc.perform(get("/sql/stats")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/sqlstats")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void pageCacheManagementNotExposedOnPublicPort() throws Exception {
+        mockMvc.perform(get("/cache/pages")).andExpect(status().isNotFound());
+        // без обработчика POST отклоняется (404 или 405), кеш не очищается
+        mockMvc.perform(post("/cache/pages/clear")).andExpect(status().is4xxClientError());
+        mockMvc.perform(post("/actuator/pagecache")).andExpect(status().is4xxClientError());
+    }
+}
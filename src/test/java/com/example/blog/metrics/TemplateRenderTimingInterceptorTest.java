@@ -0,0 +1,44 @@
+package com.example.blog.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+class TemplateRenderTimingInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TemplateRenderTimingInterceptor interceptor = new TemplateRenderTimingInterceptor(registry);
+
+    @Test
+    void rendersAreTimedPerTemplate() {
+        render("posts");
+        render("posts");
+        render("post :: comments");
+
+        Timer posts = registry.find(TemplateRenderTimingInterceptor.METRIC).tag("template", "posts").timer();
+        assertNotNull(posts);
+        assertEquals(2, posts.count());
+        assertEquals(1, registry.find(TemplateRenderTimingInterceptor.METRIC)
+                .tag("template", "post :: comments").timer().count());
+    }
+
+    @Test
+    void redirectsAndResponseBodiesAreNotTimed() {
+        render("redirect:/posts");
+        render(null);
+
+        assertNull(registry.find(TemplateRenderTimingInterceptor.METRIC).timer());
+    }
+
+    private void render(String view) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.postHandle(request, response, new Object(), view != null ? new ModelAndView(view) : null);
+        interceptor.afterCompletion(request, response, new Object(), null);
+    }
+}
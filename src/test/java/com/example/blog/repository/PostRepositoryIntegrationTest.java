@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,8 +24,8 @@ class PostRepositoryIntegrationTest {
     }
 
     @Test
-    @DisplayName("Поиск постов по подстроке в заголовке без учета регистра")
-    void testFindByTitleContainingIgnoreCase() {
+    @DisplayName("Сохранение и чтение постов по идентификатору")
+    void testSaveAndFindById() {
         // Arrange
         Post post1 = new Post();
         post1.setTitle("Spring Boot Guide");
@@ -33,7 +33,7 @@ class PostRepositoryIntegrationTest {
         post1.setImageUrl("/img/spring.jpg");
         post1.setText("Some text");
         post1.setLikes(0);
-        postRepository.save(post1);
+        Post saved = postRepository.save(post1);
 
         Post post2 = new Post();
         post2.setTitle("Another Post");
@@ -44,13 +44,13 @@ class PostRepositoryIntegrationTest {
         postRepository.save(post2);
 
         // Act
-        List<Post> results = postRepository.findByTitleContainingIgnoreCase("spring");
+        Optional<Post> found = postRepository.findById(saved.getId());
 
         // Assert
-        assertThat(results)
-            .hasSize(1)
-            .first()
+        assertThat(found)
+            .get()
             .extracting(Post::getTitle)
             .isEqualTo("Spring Boot Guide");
+        assertThat(postRepository.count()).isEqualTo(2);
     }
 }
@@ -0,0 +1,95 @@
+package com.example.blog.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemImageStorageTest {
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4 };
+
+    @TempDir
+    Path root;
+
+    @Test
+    void store_ShardsByContentHashAndDeduplicates() throws Exception {
+        FileSystemImageStorage storage = new FileSystemImageStorage(root.toString());
+
+        StoredImage first = storage.store(new ByteArrayInputStream(PNG), "cat.jpeg");
+        StoredImage second = storage.store(new ByteArrayInputStream(PNG), "other-name.png");
+
+        // расширение — по сигнатуре PNG, а не по имени файла
+        String hash = first.hash();
+        assertEquals(64, hash.length());
+        assertEquals("/uploads/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".png",
+                first.url());
+        assertEquals(PNG.length, first.size());
+        assertFalse(first.duplicate());
+
+        assertEquals(first.url(), second.url());
+        assertTrue(second.duplicate());
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertArrayEquals(PNG, Files.readAllBytes(root.resolve(first.url().substring("/uploads/".length()))));
+    }
+
+    @Test
+    void store_StreamsLargeUploadWithoutBufferingItWhole() throws Exception {
+        FileSystemImageStorage storage = new FileSystemImageStorage(root.toString());
+        long size = 64L * 1024 * 1024;
+        // поток генерирует данные на лету: в памяти их нет целиком
+        InputStream generated = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                return (position < size) ? next() : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (position >= size) {
+                    return -1;
+                }
+                int n = (int) Math.min(length, size - position);
+                for (int i = 0; i < n; i++) {
+                    buffer[offset + i] = (byte) next();
+                }
+                return n;
+            }
+
+            // сигнатура PNG, дальше — сгенерированные байты
+            private int next() {
+                long i = position++;
+                return (i < PNG.length) ? PNG[(int) i] & 0xFF : (int) (i & 0x7F);
+            }
+        };
+
+        StoredImage image = storage.store(generated, "dump.BIN");
+
+        assertEquals(size, image.size());
+        assertTrue(image.url().endsWith(".png"));
+        assertEquals(size, Files.size(root.resolve(image.url().substring("/uploads/".length()))));
+    }
+
+    @Test
+    void store_NonImageContent_RejectedWhateverTheName() throws Exception {
+        FileSystemImageStorage storage = new FileSystemImageStorage(root.toString());
+
+        for (String name : new String[] { "page.html", "logo.svg", "app.js", "../../evil.p/hp", null }) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> storage.store(new ByteArrayInputStream("<html><script>".getBytes()), name));
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.blog.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+class HotImageCacheTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void load_EvictsBeyondByteLimit() throws Exception {
+        HotImageCache cache = new HotImageCache(250, 100, Runnable::run);
+
+        cache.load("a.png", file("a.png", 100));
+        cache.load("b.png", file("b.png", 100));
+        cache.load("c.png", file("c.png", 100));
+
+        HotImageCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(200, stats.bytes());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void load_FrequentlyReadImageSurvivesOneOffLoads() throws Exception {
+        HotImageCache cache = new HotImageCache(250, 100, Runnable::run);
+        cache.load("hot.png", file("hot.png", 100));
+        for (int i = 0; i < 10; i++) {
+            cache.get("hot.png");
+        }
+
+        for (int i = 0; i < 5; i++) {
+            cache.load("cold" + i + ".png", file("cold" + i + ".png", 100));
+        }
+
+        assertNotNull(cache.get("hot.png"));
+        assertTrue(cache.getStats().bytes() <= 250);
+    }
+
+    @Test
+    void get_CountsHitsAndMisses() throws Exception {
+        HotImageCache cache = new HotImageCache(1000, 100, Runnable::run);
+        cache.load("a.png", file("a.png", 10));
+
+        cache.get("a.png");
+        cache.get("b.png");
+
+        HotImageCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void load_LargeFileNotCached() throws Exception {
+        HotImageCache cache = new HotImageCache(1000, 100);
+        Resource large = file("large.png", 101);
+
+        assertSame(large, cache.load("large.png", large));
+        assertNull(cache.get("large.png"));
+    }
+
+    @Test
+    void cachedImage_KeepsFileMetadata() throws Exception {
+        HotImageCache cache = new HotImageCache(1000, 100);
+        Resource source = file("a.png", 10);
+
+        Resource cached = cache.load("ab/a.png", source);
+
+        assertInstanceOf(HotImageCache.CachedImage.class, cached);
+        assertEquals("a.png", cached.getFilename());
+        assertEquals(source.lastModified(), cached.lastModified());
+        assertEquals(10, cached.contentLength());
+        assertEquals("ab/a.png", ((HotImageCache.CachedImage) cached).getPath());
+    }
+
+    private Resource file(String name, int size) throws Exception {
+        Path file = root.resolve(name);
+        Files.write(file, new byte[size]);
+        return new FileSystemResource(file);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.blog.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemImageStorage storage;
+    private ImageVariantService variants;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FileSystemImageStorage(root.toString());
+        variants = new ImageVariantService(storage, 2, 10, 5000, 40_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.shutdown();
+    }
+
+    @Test
+    void variant_ScalesToWidthKeepingAspectRatio() throws Exception {
+        StoredImage image = storeImage(2000, 1000, "png");
+        String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+        Path small = variants.variant(relative, 320);
+
+        assertEquals(root.resolve("variants/320").resolve(relative), small);
+        BufferedImage scaled = ImageIO.read(small.toFile());
+        assertEquals(320, scaled.getWidth());
+        assertEquals(160, scaled.getHeight());
+        // повторный запрос отдаёт уже созданный файл
+        assertEquals(small, variants.variant(relative, 320));
+    }
+
+    @Test
+    void variant_DoesNotUpscale() throws Exception {
+        StoredImage image = storeImage(500, 250, "jpg");
+        String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+        Path large = variants.variant(relative, 1280);
+
+        assertEquals(500, ImageIO.read(large.toFile()).getWidth());
+    }
+
+    @Test
+    void variant_OverPixelBudget_NotDecodedOriginalUsed() throws Exception {
+        ImageVariantService limited = new ImageVariantService(storage, 1, 10, 5000, 1_000_000);
+        try {
+            StoredImage image = storeImage(2000, 1000, "png");
+            String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+            assertEquals(root.resolve(relative), limited.variant(relative, 320));
+            assertFalse(Files.exists(root.resolve("variants/320").resolve(relative)));
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void variant_UndecodableOriginal_OriginalUsedAndRemembered() throws Exception {
+        String relative = "ab/cd/broken image.png";
+        Path original = root.resolve(relative);
+        Files.createDirectories(original.getParent());
+        // заголовок PNG без данных изображения
+        Files.write(original, new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0 });
+
+        assertEquals(original, variants.variant(relative, 320));
+        assertFalse(Files.exists(root.resolve("variants/320").resolve(relative)));
+
+        // файл больше не декодируется, даже если его заменить корректным изображением
+        BufferedImage valid = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(valid, "png", original.toFile());
+        assertEquals(original, variants.variant(relative, 640));
+        assertFalse(Files.exists(root.resolve("variants/640").resolve(relative)));
+    }
+
+    @Test
+    void variant_MuchWiderSource_SubsampledBeforeScaling() throws Exception {
+        StoredImage image = storeImage(4000, 400, "png");
+        String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+        BufferedImage scaled = ImageIO.read(variants.variant(relative, 320).toFile());
+
+        assertEquals(320, scaled.getWidth());
+        // пропорции сохраняются с точностью до округления при прореживании
+        assertTrue(Math.abs(scaled.getHeight() - 32) <= 1, "height " + scaled.getHeight());
+    }
+
+    @Test
+    void variant_UnknownWidthMissingFileOrPathOutsideRoot_ReturnsNull() throws Exception {
+        StoredImage image = storeImage(400, 400, "png");
+        String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+        assertNull(variants.variant(relative, 100));
+        assertNull(variants.variant("ab/cd/missing.png", 320));
+        assertNull(variants.variant("../outside.png", 320));
+        assertNull(variants.variant("variants/320/" + relative, 320));
+    }
+
+    @Test
+    void generateAll_CreatesAllWidthsInBackground() throws Exception {
+        StoredImage image = storeImage(1600, 900, "png");
+        String relative = image.url().substring(ImageStorage.URL_PREFIX.length());
+
+        variants.generateAll(image.url());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (int width : ImageVariantService.WIDTHS) {
+            Path file = root.resolve("variants").resolve(String.valueOf(width)).resolve(relative);
+            while (!Files.exists(file) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(width, ImageIO.read(file.toFile()).getWidth());
+        }
+    }
+
+    @Test
+    void generateAll_IgnoresForeignUrls() {
+        variants.generateAll("https://example.com/cat.png");
+        variants.generateAll("/uploads/variants/320/ab/cd/x.png");
+
+        assertFalse(Files.exists(root.resolve("variants")));
+    }
+
+    private StoredImage storeImage(int width, int height, String format) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, format, bytes);
+        return storage.store(new ByteArrayInputStream(bytes.toByteArray()), "image." + format);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.blog.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+
+class UploadsResourceHandlerTest {
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4 };
+
+    @TempDir
+    Path root;
+
+    private FileSystemImageStorage storage;
+    private HotImageCache cache;
+    private UploadsResourceHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new FileSystemImageStorage(root.toString());
+        cache = new HotImageCache(1024 * 1024, 1024);
+        handler = new UploadsResourceHandler(storage, cache);
+        handler.setServletContext(new MockServletContext());
+        handler.afterPropertiesSet();
+    }
+
+    @Test
+    void hashedFile_ImmutableCachingAndStrongEtag() throws Exception {
+        StoredImage image = storage.store(new ByteArrayInputStream(PNG), "cat.png");
+
+        MockHttpServletResponse response = get(path(image), null, null);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(PNG, response.getContentAsByteArray());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        assertNull(response.getHeader("Content-Disposition"));
+        assertEquals("\"" + image.hash() + "\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        assertTrue(response.getHeader("Cache-Control").contains("max-age=31536000"));
+
+        MockHttpServletResponse notModified = get(path(image), "\"" + image.hash() + "\"", null);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    void variant_EtagIncludesWidth() throws Exception {
+        StoredImage image = storage.store(new ByteArrayInputStream(PNG), "cat.png");
+        Path variant = root.resolve("variants/320").resolve(path(image));
+        Files.createDirectories(variant.getParent());
+        Files.write(variant, PNG);
+
+        MockHttpServletResponse response = get("variants/320/" + path(image), null, null);
+
+        assertEquals("\"" + image.hash() + "-w320\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void range_ReturnsPartialContent() throws Exception {
+        StoredImage image = storage.store(new ByteArrayInputStream(PNG), "cat.png");
+
+        MockHttpServletResponse response = get(path(image), null, "bytes=1-3");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 1-3/" + PNG.length, response.getHeader("Content-Range"));
+        assertArrayEquals(new byte[] { 'P', 'N', 'G' }, response.getContentAsByteArray());
+    }
+
+    @Test
+    void smallFile_ServedFromMemoryAfterFirstRequest() throws Exception {
+        StoredImage image = storage.store(new ByteArrayInputStream(PNG), "cat.png");
+        get(path(image), null, null);
+        Files.delete(root.resolve(path(image)));
+
+        MockHttpServletResponse response = get(path(image), null, null);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(PNG, response.getContentAsByteArray());
+        assertEquals(1, cache.getStats().hits());
+        assertEquals(1, cache.getStats().size());
+    }
+
+    @Test
+    void largeFile_SentWithSendfileWhenSupported() throws Exception {
+        Path file = root.resolve("0b6f-uuid_big.jpg");
+        Files.write(file, new byte[4096]);
+
+        MockHttpServletRequest request = request("0b6f-uuid_big.jpg");
+        request.setAttribute(UploadsResourceHandler.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(4096, response.getContentLengthLong());
+        assertEquals("image/jpeg", response.getContentType());
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(UploadsResourceHandler.SENDFILE_FILENAME));
+        assertEquals(0L, request.getAttribute(UploadsResourceHandler.SENDFILE_START));
+        assertEquals(4096L, request.getAttribute(UploadsResourceHandler.SENDFILE_END));
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    void legacyNonImageFile_ServedAsDownload() throws Exception {
+        Files.write(root.resolve("0b6f-uuid_page.html"), "<script>alert(1)</script>".getBytes());
+
+        MockHttpServletResponse response = get("0b6f-uuid_page.html", null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/octet-stream", response.getContentType());
+        assertEquals("attachment", response.getHeader("Content-Disposition"));
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+    }
+
+    @Test
+    void tmpDirectory_NotServed() throws Exception {
+        Files.createDirectories(root.resolve("tmp"));
+        Files.write(root.resolve("tmp/upload-1.part"), PNG);
+
+        assertEquals(404, get("tmp/upload-1.part", null, null).getStatus());
+        assertEquals(404, get("ab/../tmp/upload-1.part", null, null).getStatus());
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, String range) throws Exception {
+        MockHttpServletRequest request = request(path);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ImageStorage.URL_PREFIX + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        return request;
+    }
+
+    private static String path(StoredImage image) {
+        return image.url().substring(ImageStorage.URL_PREFIX.length());
+    }
+}
@@ -3,15 +3,26 @@ DROP TABLE IF EXISTS comments;
 DROP TABLE IF EXISTS tags;
 DROP TABLE IF EXISTS posts;
 
+-- Триграммы для поиска по части заголовка с опечатками (SearchService.searchTitles)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 CREATE TABLE posts (
     id SERIAL PRIMARY KEY,
     title TEXT,
     preview TEXT,
     image_url TEXT,
     text TEXT,
-    likes INT DEFAULT 0
+    likes INT DEFAULT 0,
+    -- Число комментариев; поддерживается CommentService и CommentCountRepairJob
+    comment_count INT NOT NULL DEFAULT 0,
+    -- Поисковый вектор (заголовок, теги, превью, текст); пересчитывается SearchService
+    search_vector TSVECTOR
 );
 
+-- Полнотекстовый поиск (SearchService)
+CREATE INDEX posts_search_vector_idx ON posts USING GIN (search_vector);
+CREATE INDEX posts_title_trgm_idx ON posts USING GIN (title gin_trgm_ops);
+
 CREATE TABLE tags (
     id SERIAL PRIMARY KEY,
     name TEXT UNIQUE NOT NULL
@@ -23,10 +34,16 @@ CREATE TABLE post_tags (
     PRIMARY KEY (post_id, tag_id)
 );
 
+-- Индекс для keyset-пагинации ленты с фильтром по тегу (WHERE tag_id = ? AND post_id < ?)
+CREATE INDEX post_tags_tag_id_post_id_idx ON post_tags (tag_id, post_id DESC);
+
 CREATE TABLE comments (
     id SERIAL PRIMARY KEY,
     post_id INT REFERENCES posts(id) ON DELETE CASCADE,
     author TEXT,
     content TEXT,
     created_at TIMESTAMP DEFAULT now()
-);
\ No newline at end of file
+);
+
+-- Индекс для постраничной загрузки комментариев поста (keyset по created_at, id)
+CREATE INDEX comments_post_id_created_at_id_idx ON comments (post_id, created_at, id);